@@ -0,0 +1,108 @@
+package net.wukl.ruleoffour.engine;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Generates the source text of the four standard exception constructors.
+ *
+ * The text uses {@code \n} line separators, four-space indentation for the body and no leading
+ * indentation; callers are expected to indent or reformat it for their surroundings.
+ */
+public final class ConstructorGenerator {
+    /**
+     * The title under which every front end offers to generate the missing constructors.
+     */
+    public static final String TITLE = "Generate exception constructors";
+
+    private ConstructorGenerator() {
+    }
+
+    /**
+     * Generates an exception constructor.
+     *
+     * @param className the simple name of the class to generate the constructor for
+     * @param constructor the number of the constructor, see {@link RuleOfFour}
+     * @param options the options to generate the constructor with
+     *
+     * @return the source text of the constructor, including its javadoc if enabled
+     */
+    @NotNull
+    public static String generate(
+            final @NotNull String className,
+            final int constructor,
+            final @NotNull GeneratorOptions options
+    ) {
+        final boolean message = RuleOfFour.hasMessage(constructor);
+        final boolean cause = RuleOfFour.hasCause(constructor);
+        final StringBuilder text = new StringBuilder(256);
+
+        if (options.isJavadocEnabled()) {
+            final String docName = options.isExactNameInDocEnabled()
+                    ? " " + className
+                    : humanizeName(className);
+
+            text.append("/**\n * Creates a new").append(docName).append(".\n");
+            if (message || cause) {
+                text.append(" *\n");
+            }
+
+            if (message) {
+                text.append(" * @param message the message explaining what caused the exception\n");
+            }
+
+            if (cause) {
+                text.append(" * @param cause the exception that caused this exception\n");
+            }
+
+            text.append(" */\n");
+        }
+
+        final String modifiers = (options.isFinalParamsEnabled() ? "final " : "")
+                + (options.isNullableParamsEnabled() ? "@Nullable " : "");
+
+        text.append("public ").append(className).append('(');
+        if (message) {
+            text.append(modifiers).append("String message");
+        }
+
+        if (message && cause) {
+            text.append(", ");
+        }
+
+        if (cause) {
+            text.append(modifiers)
+                    .append(options.isExceptionAsCauseEnabled() ? "Exception" : "Throwable")
+                    .append(" cause");
+        }
+        text.append(") {\n");
+
+        if (message || cause) {
+            text.append("    super(")
+                    .append(message ? "message" : "")
+                    .append(message && cause ? ", " : "")
+                    .append(cause ? "cause" : "")
+                    .append(");\n");
+        } else if (options.isEmptySuperEnabled()) {
+            text.append("    super();\n");
+        }
+
+        text.append("}");
+        return text.toString();
+    }
+
+    /**
+     * Converts a class name to "human" form.
+     *
+     * "Human" form means that the class name is split at the capitals and converted to lower case.
+     * Every capital is preceded by a space, so the result can be appended directly to a word.
+     *
+     * @param name the name to convert
+     *
+     * @return the humanized name
+     */
+    @NotNull
+    public static String humanizeName(final @NotNull String name) {
+        final String splitName = name.replaceAll("([A-Z])", " $1");
+        return splitName.toLowerCase();
+    }
+}
@@ -0,0 +1,93 @@
+package net.wukl.ruleoffour.engine;
+
+/**
+ * Options controlling the constructors generated by the {@link ConstructorGenerator}.
+ *
+ * These mirror the settings of the IDE plugin; the defaults are the same.
+ */
+public final class GeneratorOptions {
+    private boolean javadoc = true;
+    private boolean exactNameInDoc = false;
+    private boolean emptySuper = true;
+    private boolean finalParams = true;
+    private boolean nullableParams = false;
+    private boolean exceptionAsCause = false;
+
+    /**
+     * Iff {@code true}, generate javadoc above the constructors.
+     *
+     * @return the option value
+     */
+    public boolean isJavadocEnabled() {
+        return this.javadoc;
+    }
+
+    public void setJavadocEnabled(final boolean javadoc) {
+        this.javadoc = javadoc;
+    }
+
+    /**
+     * Iff {@code true}, use the exact class name in the javadoc instead of the "human" form.
+     *
+     * @return the option value
+     */
+    public boolean isExactNameInDocEnabled() {
+        return this.exactNameInDoc;
+    }
+
+    public void setExactNameInDocEnabled(final boolean exactNameInDoc) {
+        this.exactNameInDoc = exactNameInDoc;
+    }
+
+    /**
+     * Iff {@code true}, generate an empty {@code super()} call in the no-arg constructor.
+     *
+     * @return the option value
+     */
+    public boolean isEmptySuperEnabled() {
+        return this.emptySuper;
+    }
+
+    public void setEmptySuperEnabled(final boolean emptySuper) {
+        this.emptySuper = emptySuper;
+    }
+
+    /**
+     * Iff {@code true}, mark all parameters as {@code final}.
+     *
+     * @return the option value
+     */
+    public boolean isFinalParamsEnabled() {
+        return this.finalParams;
+    }
+
+    public void setFinalParamsEnabled(final boolean finalParams) {
+        this.finalParams = finalParams;
+    }
+
+    /**
+     * Iff {@code true}, mark all parameters as {@code @Nullable}.
+     *
+     * @return the option value
+     */
+    public boolean isNullableParamsEnabled() {
+        return this.nullableParams;
+    }
+
+    public void setNullableParamsEnabled(final boolean nullableParams) {
+        this.nullableParams = nullableParams;
+    }
+
+    /**
+     * Iff {@code true}, use {@code Exception} instead of {@code Throwable} as the cause type.
+     *
+     * @return the option value
+     */
+    public boolean isExceptionAsCauseEnabled() {
+        return this.exceptionAsCause;
+    }
+
+    public void setExceptionAsCauseEnabled(final boolean exceptionAsCause) {
+        this.exceptionAsCause = exceptionAsCause;
+    }
+}
@@ -0,0 +1,167 @@
+package net.wukl.ruleoffour.engine;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The rules deciding whether an exception declares the four standard constructors.
+ *
+ * The four constructors are numbered 0 to 3: bit 0 of the number means the constructor takes a
+ * message, bit 1 means it takes a cause. Results are reported as bit masks over these numbers.
+ *
+ * All methods are stateless, allocation-free on the check path and safe to call from any thread.
+ */
+public final class RuleOfFour {
+    /**
+     * The number of constructors every exception should declare.
+     */
+    public static final int CONSTRUCTOR_COUNT = 4;
+
+    /**
+     * The constructor without parameters.
+     */
+    public static final int DEFAULT = 0;
+
+    /**
+     * The constructor taking only a message.
+     */
+    public static final int MESSAGE = 1;
+
+    /**
+     * The constructor taking only a cause.
+     */
+    public static final int CAUSE = 2;
+
+    /**
+     * The constructor taking a message and a cause.
+     */
+    public static final int MESSAGE_AND_CAUSE = 3;
+
+    /**
+     * The mask with every constructor set.
+     */
+    public static final int ALL = (1 << CONSTRUCTOR_COUNT) - 1;
+
+    private RuleOfFour() {
+    }
+
+    /**
+     * Checks whether a constructor takes a message.
+     *
+     * @param constructor the number of the constructor
+     *
+     * @return {@code true} if it has a message parameter
+     */
+    public static boolean hasMessage(final int constructor) {
+        return (constructor & MESSAGE) != 0;
+    }
+
+    /**
+     * Checks whether a constructor takes a cause.
+     *
+     * @param constructor the number of the constructor
+     *
+     * @return {@code true} if it has a cause parameter
+     */
+    public static boolean hasCause(final int constructor) {
+        return (constructor & CAUSE) != 0;
+    }
+
+    /**
+     * Checks whether the rule applies to a class.
+     *
+     * @param simpleName the simple name of the class
+     * @param inheritsException whether the class (indirectly) extends {@code java.lang.Exception}
+     *
+     * @return {@code true} if the class is an exception named like one
+     */
+    public static boolean isApplicable(
+            final @NotNull CharSequence simpleName,
+            final boolean inheritsException
+    ) {
+        return inheritsException && endsWith(simpleName, "Exception");
+    }
+
+    /**
+     * Determines which of the four constructors a class is missing.
+     *
+     * @param signatures the packed constructor signatures of the class
+     * @param causeType the type ID the cause parameter should have
+     *
+     * @return the mask of missing constructors, {@code 0} if the class complies
+     */
+    public static int check(final @NotNull int[] signatures, final int causeType) {
+        int found = 0;
+        int pos = 1;
+
+        for (int remaining = signatures[0]; remaining > 0; --remaining) {
+            final int params = signatures[pos];
+
+            if (params == 0) {
+                found |= 1 << DEFAULT;
+            } else if (params == 1) {
+                final int type = signatures[pos + 1];
+                if (type == TypeTable.STRING) {
+                    found |= 1 << MESSAGE;
+                } else if (type == causeType) {
+                    found |= 1 << CAUSE;
+                }
+            } else if (params == 2
+                    && signatures[pos + 1] == TypeTable.STRING
+                    && signatures[pos + 2] == causeType) {
+                found |= 1 << MESSAGE_AND_CAUSE;
+            }
+
+            pos += params + 1;
+        }
+
+        return ~found & ALL;
+    }
+
+    /**
+     * Describes a missing constructor.
+     *
+     * @param constructor the number of the constructor
+     * @param exceptionAsCause iff {@code true}, the cause is an {@code Exception} rather than a
+     *                         {@code Throwable}
+     *
+     * @return the violation message
+     */
+    @NotNull
+    public static String describeMissing(final int constructor, final boolean exceptionAsCause) {
+        final String causeType = exceptionAsCause ? "Exception" : "Throwable";
+        final String what;
+        switch (constructor) {
+            case DEFAULT:
+                what = "no default constructor";
+                break;
+            case MESSAGE:
+                what = "no (String message) constructor";
+                break;
+            case CAUSE:
+                what = "no (" + causeType + " cause) constructor";
+                break;
+            case MESSAGE_AND_CAUSE:
+                what = "no (String message, " + causeType + " cause) constructor";
+                break;
+            default:
+                throw new IllegalArgumentException("No such constructor: " + constructor);
+        }
+
+        return "Exception class violates the Rule of Four: " + what;
+    }
+
+    private static boolean endsWith(final @NotNull CharSequence str, final @NotNull String suffix) {
+        final int offset = str.length() - suffix.length();
+        if (offset < 0) {
+            return false;
+        }
+
+        for (int i = 0; i < suffix.length(); ++i) {
+            if (str.charAt(offset + i) != suffix.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
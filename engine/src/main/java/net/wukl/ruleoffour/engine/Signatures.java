@@ -0,0 +1,119 @@
+package net.wukl.ruleoffour.engine;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Packs the constructor signatures of a class into a single {@code int} array.
+ *
+ * The layout is {@code [constructorCount, (parameterCount, typeId...)...]}, with type IDs taken
+ * from a {@link TypeTable}. A class without constructors is packed as {@code [0]}.
+ */
+public final class Signatures {
+    /**
+     * The signatures of a class without constructors.
+     */
+    private static final int[] NONE = { 0 };
+
+    private Signatures() {
+    }
+
+    /**
+     * Returns the signatures of a class without constructors.
+     *
+     * @return the packed signatures; do not modify
+     */
+    @NotNull
+    public static int[] none() {
+        return NONE;
+    }
+
+    /**
+     * Returns the number of constructors in packed signatures.
+     *
+     * @param signatures the packed signatures
+     *
+     * @return the number of constructors
+     */
+    public static int count(final @NotNull int[] signatures) {
+        return signatures[0];
+    }
+
+    /**
+     * Builds packed signatures one constructor and parameter at a time.
+     *
+     * A builder can be reused after {@link #build()} by calling {@link #reset()}, so that only
+     * the resulting array is allocated per class. Builders are not thread-safe.
+     */
+    public static final class Builder {
+        private int[] buf = new int[16];
+        private int size = 1;
+        private int current = -1;
+
+        /**
+         * Starts a new constructor.
+         *
+         * @return this builder
+         */
+        @NotNull
+        public Builder constructor() {
+            this.ensure(1);
+            ++this.buf[0];
+            this.current = this.size;
+            this.buf[this.size++] = 0;
+            return this;
+        }
+
+        /**
+         * Adds a parameter to the current constructor.
+         *
+         * @param typeId the type ID of the parameter
+         *
+         * @return this builder
+         *
+         * @throws IllegalStateException if no constructor has been started
+         */
+        @NotNull
+        public Builder parameter(final int typeId) {
+            if (this.current < 0) {
+                throw new IllegalStateException("No constructor to add a parameter to");
+            }
+
+            this.ensure(1);
+            ++this.buf[this.current];
+            this.buf[this.size++] = typeId;
+            return this;
+        }
+
+        /**
+         * Returns the packed signatures built so far.
+         *
+         * @return the packed signatures
+         */
+        @NotNull
+        public int[] build() {
+            return this.buf[0] == 0 ? NONE : Arrays.copyOf(this.buf, this.size);
+        }
+
+        /**
+         * Clears the builder.
+         *
+         * @return this builder
+         */
+        @NotNull
+        public Builder reset() {
+            this.buf[0] = 0;
+            this.size = 1;
+            this.current = -1;
+            return this;
+        }
+
+        private void ensure(final int extra) {
+            if (this.size + extra > this.buf.length) {
+                final int capacity = Math.max(this.buf.length * 2, this.size + extra);
+                this.buf = Arrays.copyOf(this.buf, capacity);
+            }
+        }
+    }
+}
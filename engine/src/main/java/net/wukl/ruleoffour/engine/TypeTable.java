@@ -0,0 +1,66 @@
+package net.wukl.ruleoffour.engine;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Maps fully qualified type names to small integer IDs.
+ *
+ * Only the types the Rule of Four is concerned with have IDs of their own; every other type is
+ * {@link #OTHER}, so signatures can be compared against them without consulting a table at all.
+ */
+public final class TypeTable {
+    /**
+     * The ID of every type that is not one of the well-known types.
+     */
+    public static final int OTHER = 0;
+
+    /**
+     * The ID of {@code java.lang.String}.
+     */
+    public static final int STRING = 1;
+
+    /**
+     * The ID of {@code java.lang.Throwable}.
+     */
+    public static final int THROWABLE = 2;
+
+    /**
+     * The ID of {@code java.lang.Exception}.
+     */
+    public static final int EXCEPTION = 3;
+
+    private TypeTable() {
+    }
+
+    /**
+     * Returns the ID of the cause type.
+     *
+     * @param exceptionAsCause iff {@code true}, the cause is an {@code Exception} rather than a
+     *                         {@code Throwable}
+     *
+     * @return the ID of the cause type
+     */
+    public static int causeType(final boolean exceptionAsCause) {
+        return exceptionAsCause ? EXCEPTION : THROWABLE;
+    }
+
+    /**
+     * Returns the fixed ID of a well-known type without consulting a table.
+     *
+     * @param qualifiedName the fully qualified name of the type
+     *
+     * @return the ID of the type, or {@link #OTHER} if it is not one of the well-known types
+     */
+    public static int wellKnown(final @NotNull String qualifiedName) {
+        switch (qualifiedName) {
+            case "java.lang.String":
+                return STRING;
+            case "java.lang.Throwable":
+                return THROWABLE;
+            case "java.lang.Exception":
+                return EXCEPTION;
+            default:
+                return OTHER;
+        }
+    }
+}
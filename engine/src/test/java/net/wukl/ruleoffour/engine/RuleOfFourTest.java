@@ -0,0 +1,134 @@
+package net.wukl.ruleoffour.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RuleOfFourTest {
+    @Test
+    public void testNoConstructors() {
+        assertEquals(RuleOfFour.ALL, RuleOfFour.check(Signatures.none(), TypeTable.THROWABLE));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    public void testAllConstructors(final boolean exceptionAsCause) {
+        final int cause = TypeTable.causeType(exceptionAsCause);
+        final int[] signatures = new Signatures.Builder()
+                .constructor()
+                .constructor().parameter(TypeTable.STRING)
+                .constructor().parameter(cause)
+                .constructor().parameter(TypeTable.STRING).parameter(cause)
+                .build();
+
+        assertEquals(0, RuleOfFour.check(signatures, cause));
+        assertEquals(
+                (1 << RuleOfFour.CAUSE) | (1 << RuleOfFour.MESSAGE_AND_CAUSE),
+                RuleOfFour.check(signatures, TypeTable.causeType(!exceptionAsCause))
+        );
+    }
+
+    @Test
+    public void testOtherSignatures() {
+        final int other = TypeTable.wellKnown("java.util.List");
+
+        final int[] signatures = new Signatures.Builder()
+                .constructor().parameter(other)
+                .constructor().parameter(TypeTable.THROWABLE).parameter(TypeTable.STRING)
+                .constructor().parameter(TypeTable.STRING).parameter(TypeTable.THROWABLE)
+                        .parameter(other)
+                .constructor().parameter(TypeTable.STRING)
+                .build();
+
+        assertEquals(4, Signatures.count(signatures));
+        assertEquals(
+                (1 << RuleOfFour.DEFAULT) | (1 << RuleOfFour.CAUSE)
+                        | (1 << RuleOfFour.MESSAGE_AND_CAUSE),
+                RuleOfFour.check(signatures, TypeTable.THROWABLE)
+        );
+    }
+
+    @Test
+    public void testWellKnownTypes() {
+        assertEquals(TypeTable.STRING, TypeTable.wellKnown("java.lang.String"));
+        assertEquals(TypeTable.THROWABLE, TypeTable.wellKnown("java.lang.Throwable"));
+        assertEquals(TypeTable.EXCEPTION, TypeTable.wellKnown("java.lang.Exception"));
+        assertEquals(TypeTable.OTHER, TypeTable.wellKnown("java.util.List"));
+        assertEquals(TypeTable.OTHER, TypeTable.wellKnown("String"));
+    }
+
+    @Test
+    public void testApplicable() {
+        assertTrue(RuleOfFour.isApplicable("BadException", true));
+        assertFalse(RuleOfFour.isApplicable("BadException", false));
+        assertFalse(RuleOfFour.isApplicable("BadError", true));
+    }
+
+    @Test
+    public void testGenerateDefaults() {
+        final GeneratorOptions options = new GeneratorOptions();
+
+        assertEquals(String.join("\n",
+                "/**",
+                " * Creates a new bad input exception.",
+                " */",
+                "public BadInputException() {",
+                "    super();",
+                "}"
+        ), ConstructorGenerator.generate("BadInputException", RuleOfFour.DEFAULT, options));
+
+        assertEquals(String.join("\n",
+                "/**",
+                " * Creates a new bad input exception.",
+                " *",
+                " * @param message the message explaining what caused the exception",
+                " * @param cause the exception that caused this exception",
+                " */",
+                "public BadInputException(final String message, final Throwable cause) {",
+                "    super(message, cause);",
+                "}"
+        ), ConstructorGenerator.generate(
+                "BadInputException", RuleOfFour.MESSAGE_AND_CAUSE, options
+        ));
+    }
+
+    @Test
+    public void testGenerateOptions() {
+        final GeneratorOptions options = new GeneratorOptions();
+        options.setJavadocEnabled(false);
+        options.setFinalParamsEnabled(false);
+        options.setNullableParamsEnabled(true);
+        options.setExceptionAsCauseEnabled(true);
+
+        assertEquals(
+                "public BadException() {\n    super();\n}",
+                ConstructorGenerator.generate("BadException", RuleOfFour.DEFAULT, options)
+        );
+        assertEquals(
+                "public BadException(@Nullable Exception cause) {\n    super(cause);\n}",
+                ConstructorGenerator.generate("BadException", RuleOfFour.CAUSE, options)
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    public void testEmptySuper(final boolean emptySuper) {
+        final GeneratorOptions options = new GeneratorOptions();
+        options.setJavadocEnabled(false);
+        options.setEmptySuperEnabled(emptySuper);
+
+        final String body = emptySuper ? "\n    super();\n" : "\n";
+        assertEquals(
+                "public BadException() {" + body + "}",
+                ConstructorGenerator.generate("BadException", RuleOfFour.DEFAULT, options)
+        );
+        assertEquals(
+                "public BadException(final String message) {\n    super(message);\n}",
+                ConstructorGenerator.generate("BadException", RuleOfFour.MESSAGE, options)
+        );
+    }
+}
@@ -0,0 +1,327 @@
+package net.wukl.ruleoffour.gradle;
+
+import net.wukl.ruleoffour.scanner.ClasspathFallback;
+import net.wukl.ruleoffour.scanner.FastScanner;
+import net.wukl.ruleoffour.scanner.PartialResult;
+import net.wukl.ruleoffour.scanner.ScanResult;
+import net.wukl.ruleoffour.scanner.SourceFile;
+import net.wukl.ruleoffour.scanner.Violation;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.FileSystemOperations;
+import org.gradle.api.file.FileType;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.SkipWhenEmpty;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.work.ChangeType;
+import org.gradle.work.FileChange;
+import org.gradle.work.InputChanges;
+import org.gradle.workers.WorkQueue;
+import org.gradle.workers.WorkerExecutor;
+import org.jetbrains.annotations.NotNull;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Checks Java sources for Rule of Four violations.
+ *
+ * The declarations of every source file are extracted in parallel through the Worker API and kept
+ * in the task's declarations directory; on incremental runs only the changed files are scanned
+ * again before the superclass graph of the whole source set is checked.
+ */
+@CacheableTask
+public class CheckRuleOfFourTask extends DefaultTask {
+    private final @NotNull WorkerExecutor workerExecutor;
+    private final @NotNull FileSystemOperations fileSystem;
+
+    private final @NotNull ConfigurableFileCollection source;
+    private final @NotNull ConfigurableFileCollection classpath;
+    private final @NotNull Property<Boolean> exceptionAsCause;
+    private final @NotNull Property<Boolean> ignoreFailures;
+    private final @NotNull DirectoryProperty declarationsDirectory;
+    private final @NotNull RegularFileProperty report;
+    private final @NotNull Property<Integer> maxWorkers;
+    private final @NotNull DirectoryProperty projectDirectory;
+
+    /**
+     * Creates a new task.
+     *
+     * @param objects the factory to create properties with
+     * @param workerExecutor the executor to scan files with
+     * @param fileSystem the service to delete stale declarations with
+     */
+    @Inject
+    public CheckRuleOfFourTask(
+            final @NotNull ObjectFactory objects,
+            final @NotNull WorkerExecutor workerExecutor,
+            final @NotNull FileSystemOperations fileSystem
+    ) {
+        this.workerExecutor = workerExecutor;
+        this.fileSystem = fileSystem;
+
+        this.source = objects.fileCollection();
+        this.classpath = objects.fileCollection();
+        this.exceptionAsCause = objects.property(Boolean.class);
+        this.ignoreFailures = objects.property(Boolean.class);
+        this.declarationsDirectory = objects.directoryProperty();
+        this.report = objects.fileProperty();
+        this.maxWorkers = objects.property(Integer.class);
+        this.projectDirectory = objects.directoryProperty();
+    }
+
+    /**
+     * Returns the Java source files to check.
+     *
+     * Being {@link SkipWhenEmpty}, the sources are also tracked incrementally.
+     *
+     * @return the source files
+     */
+    @InputFiles
+    @SkipWhenEmpty
+    @PathSensitive(PathSensitivity.RELATIVE)
+    @NotNull
+    public ConfigurableFileCollection getSource() {
+        return this.source;
+    }
+
+    /**
+     * Returns the classpath to resolve superclasses outside the sources with.
+     *
+     * @return the classpath
+     */
+    @Classpath
+    @NotNull
+    public ConfigurableFileCollection getClasspath() {
+        return this.classpath;
+    }
+
+    /**
+     * Iff {@code true}, expect {@code Exception} instead of {@code Throwable} as the cause type.
+     *
+     * @return the property
+     */
+    @Input
+    @NotNull
+    public Property<Boolean> getExceptionAsCause() {
+        return this.exceptionAsCause;
+    }
+
+    /**
+     * Iff {@code true}, report violations without failing the build.
+     *
+     * @return the property
+     */
+    @Input
+    @NotNull
+    public Property<Boolean> getIgnoreFailures() {
+        return this.ignoreFailures;
+    }
+
+    /**
+     * Returns the directory the extracted declarations of each source file are kept in.
+     *
+     * @return the property
+     */
+    @OutputDirectory
+    @NotNull
+    public DirectoryProperty getDeclarationsDirectory() {
+        return this.declarationsDirectory;
+    }
+
+    /**
+     * Returns the file the violations are reported in.
+     *
+     * @return the property
+     */
+    @OutputFile
+    @NotNull
+    public RegularFileProperty getReport() {
+        return this.report;
+    }
+
+    /**
+     * Returns the number of threads the superclass graph is checked with.
+     *
+     * Defaults to the build's worker limit, so the check does not oversubscribe the machine
+     * running other tasks in parallel.
+     *
+     * @return the property
+     */
+    @Internal
+    @NotNull
+    public Property<Integer> getMaxWorkers() {
+        return this.maxWorkers;
+    }
+
+    /**
+     * Returns the directory the paths in the report are relative to.
+     *
+     * Sources outside of it are reported by their absolute path.
+     *
+     * @return the property
+     */
+    @Internal
+    @NotNull
+    public DirectoryProperty getProjectDirectory() {
+        return this.projectDirectory;
+    }
+
+    /**
+     * Runs the check.
+     *
+     * @param changes the source files changed since the previous run
+     */
+    @TaskAction
+    public void check(final @NotNull InputChanges changes) {
+        final Path declarations = this.declarationsDirectory.get().getAsFile().toPath();
+        if (!changes.isIncremental()) {
+            this.fileSystem.delete(spec -> spec.delete(declarations.toFile()));
+        }
+
+        final WorkQueue queue = this.workerExecutor.noIsolation();
+        for (final FileChange change : changes.getFileChanges(this.source)) {
+            if (change.getFileType() == FileType.DIRECTORY
+                    || !change.getNormalizedPath().endsWith(".java")) {
+                continue;
+            }
+
+            // Source roots may contain files with the same relative path, so the declarations
+            // are keyed by the path of the file itself.
+            final Path file = change.getFile().toPath().toAbsolutePath().normalize();
+            final String path = this.pathOf(file);
+            final File partial = this.partialOf(declarations, file).toFile();
+            if (change.getChangeType() == ChangeType.REMOVED) {
+                this.fileSystem.delete(spec -> spec.delete(partial));
+                continue;
+            }
+
+            queue.submit(ScanSourceAction.class, params -> {
+                params.getSource().set(change.getFile());
+                params.getPath().set(path);
+                params.getPartial().set(partial);
+            });
+        }
+        queue.await();
+
+        final List<Violation> violations;
+        try {
+            violations = this.checkDeclarations(declarations);
+            this.writeReport(violations);
+        } catch (final IOException ex) {
+            throw new GradleException("Unable to check the Rule of Four", ex);
+        }
+
+        if (violations.isEmpty()) {
+            return;
+        }
+
+        for (final Violation violation : violations) {
+            this.getLogger().warn(violation.toString());
+        }
+
+        final String message = violations.size() + " Rule of Four violation(s) found, see "
+                + this.report.get().getAsFile();
+        if (this.ignoreFailures.get()) {
+            this.getLogger().warn(message);
+        } else {
+            throw new GradleException(message);
+        }
+    }
+
+    /**
+     * Returns the path to report a source file by: relative to the project directory if possible,
+     * absolute otherwise.
+     */
+    @NotNull
+    private String pathOf(final @NotNull Path file) {
+        final Path projectDir = this.projectDirectory.get().getAsFile().toPath().toAbsolutePath();
+        if (!file.startsWith(projectDir)) {
+            return file.toString();
+        }
+
+        return projectDir.relativize(file).toString().replace(File.separatorChar, '/');
+    }
+
+    @NotNull
+    private Path partialOf(final @NotNull Path declarations, final @NotNull Path file) {
+        final Path projectDir = this.projectDirectory.get().getAsFile().toPath().toAbsolutePath();
+        final Path partial = file.startsWith(projectDir)
+                ? declarations.resolve("project").resolve(projectDir.relativize(file).toString())
+                : declarations.resolve("external")
+                        .resolve(file.getRoot().relativize(file).toString());
+
+        return partial.resolveSibling(partial.getFileName() + ".r4p");
+    }
+
+    @NotNull
+    private List<Violation> checkDeclarations(final @NotNull Path declarations)
+            throws IOException {
+        final List<PartialResult> partials = new ArrayList<>();
+        if (Files.isDirectory(declarations)) {
+            final List<Path> paths;
+            try (Stream<Path> walk = Files.walk(declarations)) {
+                paths = walk.filter(p -> p.toString().endsWith(".r4p"))
+                        .collect(Collectors.toList());
+            }
+
+            for (final Path path : paths) {
+                partials.add(PartialResult.read(path));
+            }
+        }
+
+        final List<SourceFile> files = new ArrayList<>();
+        for (final PartialResult partial : partials) {
+            files.addAll(partial.getFiles());
+        }
+        files.sort(Comparator.comparing(SourceFile::getPath));
+
+        final List<Path> libraries = new ArrayList<>();
+        for (final File entry : this.classpath.getFiles()) {
+            libraries.add(entry.toPath());
+        }
+
+        try (ClasspathFallback fallback = new ClasspathFallback(libraries)) {
+            final FastScanner scanner = new FastScanner(
+                    this.exceptionAsCause.get(), fallback, Math.max(1, this.maxWorkers.get())
+            );
+            final ScanResult result = scanner.check(files);
+            return result.getViolations();
+        }
+    }
+
+    private void writeReport(final @NotNull List<Violation> violations) throws IOException {
+        final Path path = this.report.get().getAsFile().toPath();
+        Files.createDirectories(path.getParent());
+
+        try (PrintWriter out = new PrintWriter(
+                Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+            for (final Violation violation : violations) {
+                out.println(violation);
+            }
+        }
+    }
+}
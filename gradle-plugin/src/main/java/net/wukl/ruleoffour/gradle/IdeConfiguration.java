@@ -0,0 +1,75 @@
+package net.wukl.ruleoffour.gradle;
+
+import org.gradle.api.GradleException;
+import org.jetbrains.annotations.NotNull;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads the options stored by the IDE plugin's {@code Ro4Configuration} in
+ * {@code .idea/ruleoffour.xml}, so builds check the same rules as the IDE.
+ */
+final class IdeConfiguration {
+    /**
+     * The name of the state component holding the options.
+     */
+    private static final String COMPONENT = "Ro4Configuration";
+
+    private IdeConfiguration() {
+    }
+
+    /**
+     * Reads the options from a configuration file.
+     *
+     * Only options that differ from their defaults are stored by the IDE.
+     *
+     * @param file the configuration file
+     *
+     * @return a map from option names to their values, empty if the file does not exist
+     */
+    @NotNull
+    static Map<String, String> read(final @NotNull File file) {
+        final Map<String, String> options = new HashMap<>();
+        if (!file.isFile()) {
+            return options;
+        }
+
+        final Document doc;
+        try {
+            final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            factory.setXIncludeAware(false);
+            factory.setExpandEntityReferences(false);
+            doc = factory.newDocumentBuilder().parse(file);
+        } catch (final ParserConfigurationException | SAXException | IOException ex) {
+            throw new GradleException("Unable to read " + file, ex);
+        }
+
+        final NodeList components = doc.getElementsByTagName("component");
+        for (int i = 0; i < components.getLength(); ++i) {
+            final Element component = (Element) components.item(i);
+            if (!COMPONENT.equals(component.getAttribute("name"))) {
+                continue;
+            }
+
+            final NodeList children = component.getElementsByTagName("option");
+            for (int j = 0; j < children.getLength(); ++j) {
+                final Element option = (Element) children.item(j);
+                options.put(option.getAttribute("name"), option.getAttribute("value"));
+            }
+        }
+
+        return options;
+    }
+}
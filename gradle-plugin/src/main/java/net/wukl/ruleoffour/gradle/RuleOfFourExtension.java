@@ -0,0 +1,70 @@
+package net.wukl.ruleoffour.gradle;
+
+import org.gradle.api.Project;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The {@code ruleOfFour} extension configuring the Rule of Four check.
+ *
+ * The options default to those chosen in the IDE's Rule of Four settings page, if the project has
+ * any.
+ */
+public class RuleOfFourExtension {
+    private final @NotNull RegularFileProperty configFile;
+    private final @NotNull Property<Boolean> exceptionAsCause;
+    private final @NotNull Property<Boolean> ignoreFailures;
+
+    /**
+     * Creates a new extension.
+     *
+     * @param project the project the extension belongs to
+     */
+    public RuleOfFourExtension(final @NotNull Project project) {
+        this.configFile = project.getObjects().fileProperty();
+        this.configFile.convention(
+                project.getRootProject().getLayout().getProjectDirectory()
+                        .file(".idea/ruleoffour.xml")
+        );
+
+        this.exceptionAsCause = project.getObjects().property(Boolean.class);
+        this.exceptionAsCause.convention(this.configFile.map(f -> {
+            final String value = IdeConfiguration.read(f.getAsFile()).get("exceptionAsCause");
+            return Boolean.parseBoolean(value);
+        }));
+
+        this.ignoreFailures = project.getObjects().property(Boolean.class);
+        this.ignoreFailures.convention(false);
+    }
+
+    /**
+     * Returns the IDE configuration file to take the defaults from.
+     *
+     * @return the configuration file, {@code .idea/ruleoffour.xml} by default
+     */
+    @NotNull
+    public RegularFileProperty getConfigFile() {
+        return this.configFile;
+    }
+
+    /**
+     * Iff {@code true}, expect {@code Exception} instead of {@code Throwable} as the cause type.
+     *
+     * @return the property
+     */
+    @NotNull
+    public Property<Boolean> getExceptionAsCause() {
+        return this.exceptionAsCause;
+    }
+
+    /**
+     * Iff {@code true}, report violations without failing the build.
+     *
+     * @return the property
+     */
+    @NotNull
+    public Property<Boolean> getIgnoreFailures() {
+        return this.ignoreFailures;
+    }
+}
@@ -0,0 +1,59 @@
+package net.wukl.ruleoffour.gradle;
+
+import org.gradle.api.Plugin;
+import org.gradle.api.Project;
+import org.gradle.api.plugins.JavaBasePlugin;
+import org.gradle.api.plugins.JavaPlugin;
+import org.gradle.api.tasks.SourceSet;
+import org.gradle.api.tasks.SourceSetContainer;
+import org.gradle.api.tasks.TaskProvider;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Adds the {@code checkRuleOfFour} task to Java projects.
+ */
+public class RuleOfFourPlugin implements Plugin<Project> {
+    /**
+     * The name of the task checking the main source set.
+     */
+    public static final String TASK_NAME = "checkRuleOfFour";
+
+    @Override
+    public void apply(final @NotNull Project project) {
+        final RuleOfFourExtension extension = project.getExtensions().create(
+                "ruleOfFour", RuleOfFourExtension.class, project
+        );
+
+        project.getPlugins().withType(JavaPlugin.class, java -> {
+            final SourceSet main = project.getExtensions()
+                    .getByType(SourceSetContainer.class)
+                    .getByName(SourceSet.MAIN_SOURCE_SET_NAME);
+
+            final TaskProvider<CheckRuleOfFourTask> task = project.getTasks().register(
+                    TASK_NAME, CheckRuleOfFourTask.class, t -> {
+                        t.setGroup(JavaBasePlugin.VERIFICATION_GROUP);
+                        t.setDescription("Checks that exceptions declare the four standard "
+                                + "constructors.");
+                        t.getSource().from(main.getAllJava());
+                        t.getClasspath().from(main.getCompileClasspath());
+                        t.getExceptionAsCause().set(extension.getExceptionAsCause());
+                        t.getIgnoreFailures().set(extension.getIgnoreFailures());
+                        t.getProjectDirectory().set(project.getLayout().getProjectDirectory());
+                        t.getMaxWorkers().convention(
+                                project.getGradle().getStartParameter().getMaxWorkerCount()
+                        );
+                        t.getDeclarationsDirectory().set(
+                                project.getLayout().getBuildDirectory().dir("ruleoffour/main")
+                        );
+                        t.getReport().set(
+                                project.getLayout().getBuildDirectory()
+                                        .file("reports/ruleoffour/main.txt")
+                        );
+                    }
+            );
+
+            project.getTasks().named(JavaBasePlugin.CHECK_TASK_NAME)
+                    .configure(check -> check.dependsOn(task));
+        });
+    }
+}
@@ -0,0 +1,36 @@
+package net.wukl.ruleoffour.gradle;
+
+import net.wukl.ruleoffour.scanner.PartialResult;
+import net.wukl.ruleoffour.scanner.SourceFile;
+import net.wukl.ruleoffour.scanner.SourceScanner;
+import org.gradle.workers.WorkAction;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Collections;
+
+/**
+ * Extracts the declarations of a single source file and stores them next to those of the other
+ * files of the task, so unchanged files need not be scanned again.
+ */
+public abstract class ScanSourceAction implements WorkAction<ScanSourceParameters> {
+    @Override
+    public void execute() {
+        final ScanSourceParameters params = this.getParameters();
+        final File source = params.getSource().get().getAsFile();
+        final File partial = params.getPartial().get().getAsFile();
+
+        try {
+            final ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(source.toPath()));
+            final SourceFile file = SourceScanner.scan(params.getPath().get(), buf);
+
+            Files.createDirectories(partial.getParentFile().toPath());
+            new PartialResult(0, 1, Collections.singletonList(file)).write(partial.toPath());
+        } catch (final IOException ex) {
+            throw new UncheckedIOException("Unable to scan " + source, ex);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package net.wukl.ruleoffour.gradle;
+
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.workers.WorkParameters;
+
+/**
+ * The parameters of a {@link ScanSourceAction}.
+ */
+public interface ScanSourceParameters extends WorkParameters {
+    /**
+     * Returns the source file to scan.
+     *
+     * @return the property
+     */
+    RegularFileProperty getSource();
+
+    /**
+     * Returns the path to record the source file as, relative to the project directory.
+     *
+     * @return the property
+     */
+    Property<String> getPath();
+
+    /**
+     * Returns the file to write the declarations of the source file to.
+     *
+     * @return the property
+     */
+    RegularFileProperty getPartial();
+}
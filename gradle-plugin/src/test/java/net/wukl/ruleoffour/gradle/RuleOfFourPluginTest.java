@@ -0,0 +1,173 @@
+package net.wukl.ruleoffour.gradle;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RuleOfFourPluginTest {
+    private static final String TASK = ":" + RuleOfFourPlugin.TASK_NAME;
+
+    @TempDir
+    Path projectDir;
+
+    private void write(final String path, final String... lines) throws IOException {
+        final Path file = this.projectDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private GradleRunner runner(final String... args) {
+        return GradleRunner.create()
+                .withProjectDir(this.projectDir.toFile())
+                .withPluginClasspath()
+                .withArguments(args);
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        this.write("settings.gradle",
+                "rootProject.name = 'consumer'",
+                "buildCache { local { directory = file('build-cache') } }"
+        );
+        this.write("build.gradle",
+                "plugins {",
+                "    id 'java'",
+                "    id 'net.wukl.ruleoffour'",
+                "}"
+        );
+        this.write("src/main/java/a/BadException.java",
+                "package a;",
+                "public class BadException extends Exception {",
+                "    public BadException(String message) { super(message); }",
+                "}"
+        );
+        this.write("src/main/java/a/Other.java",
+                "package a;",
+                "class Other {}"
+        );
+    }
+
+    @Test
+    public void testReportsViolations() throws IOException {
+        final BuildResult result = this.runner(RuleOfFourPlugin.TASK_NAME).buildAndFail();
+        assertEquals(TaskOutcome.FAILED, result.task(TASK).getOutcome());
+        assertTrue(result.getOutput().contains("3 Rule of Four violation(s) found"));
+
+        final String report = new String(Files.readAllBytes(
+                this.projectDir.resolve("build/reports/ruleoffour/main.txt")
+        ), StandardCharsets.UTF_8);
+        assertTrue(report.startsWith(
+                "src/main/java/a/BadException.java:2: Exception class violates the Rule of Four"
+        ));
+    }
+
+    @Test
+    public void testSameRelativePathInTwoSourceRoots() throws IOException {
+        this.write("build.gradle",
+                "plugins {",
+                "    id 'java'",
+                "    id 'net.wukl.ruleoffour'",
+                "}",
+                "sourceSets.main.java.srcDir 'src/generated/java'"
+        );
+        this.write("src/main/java/a/Dup.java",
+                "package a;",
+                "class FirstException extends Exception {}"
+        );
+        this.write("src/generated/java/a/Dup.java",
+                "package a;",
+                "class SecondException extends Exception {}"
+        );
+
+        this.runner(RuleOfFourPlugin.TASK_NAME).buildAndFail();
+
+        final String report = new String(Files.readAllBytes(
+                this.projectDir.resolve("build/reports/ruleoffour/main.txt")
+        ), StandardCharsets.UTF_8);
+        assertTrue(report.contains("src/main/java/a/Dup.java:2: "), report);
+        assertTrue(report.contains("src/generated/java/a/Dup.java:2: "), report);
+    }
+
+    @Test
+    public void testUsesIdeConfiguration() throws IOException {
+        this.write("src/main/java/a/BadException.java",
+                "package a;",
+                "public class BadException extends Exception {",
+                "    public BadException() {}",
+                "    public BadException(String message) {}",
+                "    public BadException(Exception cause) {}",
+                "    public BadException(String message, Exception cause) {}",
+                "}"
+        );
+
+        this.runner(RuleOfFourPlugin.TASK_NAME).buildAndFail();
+
+        this.write(".idea/ruleoffour.xml",
+                "<project version=\"4\">",
+                "  <component name=\"Ro4Configuration\">",
+                "    <option name=\"exceptionAsCause\" value=\"true\" />",
+                "  </component>",
+                "</project>"
+        );
+
+        final BuildResult result = this.runner(RuleOfFourPlugin.TASK_NAME).build();
+        assertEquals(TaskOutcome.SUCCESS, result.task(TASK).getOutcome());
+    }
+
+    @Test
+    public void testIncrementalAndCacheable() throws IOException {
+        this.write("build.gradle",
+                "plugins {",
+                "    id 'java'",
+                "    id 'net.wukl.ruleoffour'",
+                "}",
+                "ruleOfFour { ignoreFailures = true }"
+        );
+
+        assertEquals(
+                TaskOutcome.SUCCESS,
+                this.runner(RuleOfFourPlugin.TASK_NAME).build().task(TASK).getOutcome()
+        );
+        assertEquals(
+                TaskOutcome.UP_TO_DATE,
+                this.runner(RuleOfFourPlugin.TASK_NAME).build().task(TASK).getOutcome()
+        );
+
+        final Path unchanged = this.projectDir.resolve(
+                "build/ruleoffour/main/project/src/main/java/a/Other.java.r4p"
+        );
+        final FileTime before = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(unchanged, before);
+
+        this.write("src/main/java/a/BadException.java",
+                "package a;",
+                "public class BadException extends RuntimeException {",
+                "    public BadException() {}",
+                "    public BadException(String message) {}",
+                "    public BadException(Throwable cause) {}",
+                "    public BadException(String message, Throwable cause) {}",
+                "}"
+        );
+
+        final BuildResult incremental = this.runner("--build-cache", RuleOfFourPlugin.TASK_NAME)
+                .build();
+        assertEquals(TaskOutcome.SUCCESS, incremental.task(TASK).getOutcome());
+        assertEquals(before, Files.getLastModifiedTime(unchanged));
+
+        final BuildResult cached = this.runner("--build-cache", "clean", RuleOfFourPlugin.TASK_NAME)
+                .build();
+        assertEquals(TaskOutcome.FROM_CACHE, cached.task(TASK).getOutcome());
+    }
+}
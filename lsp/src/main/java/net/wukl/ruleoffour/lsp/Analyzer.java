@@ -0,0 +1,415 @@
+package net.wukl.ruleoffour.lsp;
+
+import net.wukl.ruleoffour.engine.ConstructorGenerator;
+import net.wukl.ruleoffour.engine.GeneratorOptions;
+import net.wukl.ruleoffour.engine.RuleOfFour;
+import net.wukl.ruleoffour.scanner.ClassDeclaration;
+import net.wukl.ruleoffour.scanner.FastScanner;
+import net.wukl.ruleoffour.scanner.ResolutionFallback;
+import net.wukl.ruleoffour.scanner.RuleOfFourChecker;
+import net.wukl.ruleoffour.scanner.SourceFile;
+import net.wukl.ruleoffour.scanner.SourceScanner;
+import net.wukl.ruleoffour.scanner.TypeIndex;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the superclass graph of a workspace and checks the documents open in the editor.
+ *
+ * The graph is built once from the files on disk. After that, every change to a document only
+ * re-scans that document and re-checks the open documents declaring classes whose superclass
+ * chain may have changed as a result.
+ *
+ * An analyzer is not thread-safe; the server confines it to a single thread.
+ */
+public final class Analyzer {
+    private static final int SEVERITY_WARNING = 2;
+    private static final String SOURCE = "ruleoffour";
+
+    private final @NotNull ResolutionFallback fallback;
+    private final boolean exceptionAsCause;
+    private final @NotNull GeneratorOptions options;
+
+    private final @NotNull Map<String, SourceFile> files = new HashMap<>();
+    private final @NotNull Map<String, Analysis> open = new LinkedHashMap<>();
+    private @NotNull TypeIndex index;
+    private @NotNull RuleOfFourChecker checker;
+
+    /**
+     * Creates a new analyzer for an empty workspace.
+     *
+     * @param fallback the fallback for names the workspace cannot resolve
+     * @param options the options to generate constructors with; these also determine the cause
+     *                type the checks expect
+     */
+    public Analyzer(
+            final @NotNull ResolutionFallback fallback,
+            final @NotNull GeneratorOptions options
+    ) {
+        this.fallback = fallback;
+        this.options = options;
+        this.exceptionAsCause = options.isExceptionAsCauseEnabled();
+        this.index = new TypeIndex(Collections.emptyList(), fallback);
+        this.checker = new RuleOfFourChecker(this.index, this.exceptionAsCause);
+    }
+
+    /**
+     * Scans the workspace on disk and rebuilds the superclass graph.
+     *
+     * Documents that are open keep their contents as known to the editor.
+     *
+     * @param roots the root directories of the workspace
+     *
+     * @return the diagnostics of every open document
+     *
+     * @throws IOException if the workspace could not be scanned
+     */
+    @NotNull
+    public List<Diagnostics> loadWorkspace(final @NotNull List<Path> roots)
+            throws IOException {
+        final List<Path> sources = FastScanner.collectSources(roots);
+        final FastScanner scanner = new FastScanner(
+                this.exceptionAsCause,
+                this.fallback,
+                Runtime.getRuntime().availableProcessors()
+        );
+
+        this.files.clear();
+        for (final SourceFile file : scanner.parse(sources)) {
+            this.files.put(file.getPath(), file);
+        }
+
+        for (final Map.Entry<String, Analysis> entry : this.open.entrySet()) {
+            this.files.put(entry.getKey(), entry.getValue().file);
+        }
+
+        this.index = new TypeIndex(this.files.values(), this.fallback);
+        this.checker = new RuleOfFourChecker(this.index, this.exceptionAsCause);
+
+        final List<Diagnostics> diagnostics = new ArrayList<>();
+        for (final Analysis analysis : this.open.values()) {
+            diagnostics.add(this.diagnose(analysis));
+        }
+
+        return diagnostics;
+    }
+
+    /**
+     * Returns the snapshot of an open document the current diagnostics are based on.
+     *
+     * @param uri the URI of the document
+     *
+     * @return the snapshot, or {@code null} if the document has not been analysed
+     */
+    @Nullable
+    public TextDocument getAnalysed(final @NotNull String uri) {
+        final Analysis analysis = this.open.get(keyOf(uri));
+        return analysis == null ? null : analysis.document;
+    }
+
+    /**
+     * Analyses a new snapshot of an open document.
+     *
+     * @param document the snapshot
+     *
+     * @return the diagnostics of the document and of every open document depending on it
+     */
+    @NotNull
+    public List<Diagnostics> update(final @NotNull TextDocument document) {
+        final String key = keyOf(document.getUri());
+        final byte[] bytes = document.getText().getBytes(StandardCharsets.UTF_8);
+        final SourceFile file = SourceScanner.scan(key, ByteBuffer.wrap(bytes));
+
+        final Analysis analysis = new Analysis(document, new LineMap(bytes), file);
+        this.open.put(key, analysis);
+
+        return this.replace(key, file);
+    }
+
+    /**
+     * Forgets the editor contents of a document, falling back to the file on disk.
+     *
+     * @param uri the URI of the document
+     *
+     * @return the diagnostics of the document, which are cleared, and of every open document
+     *         depending on it
+     */
+    @NotNull
+    public List<Diagnostics> close(final @NotNull String uri) {
+        final String key = keyOf(uri);
+        if (this.open.remove(key) == null) {
+            return Collections.emptyList();
+        }
+
+        SourceFile file = null;
+        try {
+            final Path path = Paths.get(key);
+            if (Files.isRegularFile(path)) {
+                file = SourceScanner.scan(path);
+            }
+        } catch (final IOException | RuntimeException ex) {
+            // Not a file on disk (any more); drop its classes from the graph.
+        }
+
+        final List<Diagnostics> diagnostics = new ArrayList<>();
+        diagnostics.add(new Diagnostics(uri, null, Collections.emptyList()));
+        diagnostics.addAll(this.replace(key, file));
+        return diagnostics;
+    }
+
+    /**
+     * Computes the code actions for a range of an open document.
+     *
+     * Every non-compliant exception whose name is within the lines of the range gets an action
+     * inserting its missing constructors at the start of its body.
+     *
+     * @param uri the URI of the document
+     * @param range the range the actions are requested for
+     *
+     * @return the {@code CodeAction}s
+     */
+    @NotNull
+    public List<Object> codeActions(
+            final @NotNull String uri,
+            final @Nullable Map<String, Object> range
+    ) {
+        final List<Object> actions = new ArrayList<>();
+        final Analysis analysis = this.open.get(keyOf(uri));
+        if (analysis == null) {
+            return actions;
+        }
+
+        final int firstLine = Json.getInt(Json.getObject(range, "start"), "line", 0);
+        final int lastLine = Json.getInt(Json.getObject(range, "end"), "line", firstLine);
+
+        for (final ClassDeclaration decl : analysis.file.getClasses()) {
+            if (decl.getNameOffset() < 0 || decl.getBodyOffset() < 0) {
+                continue;
+            }
+
+            final int line = analysis.lines.line(decl.getNameOffset());
+            if (line < firstLine || line > lastLine) {
+                continue;
+            }
+
+            final int missing = this.checker.missing(decl);
+            if (missing == 0) {
+                continue;
+            }
+
+            final Map<String, Object> edit = Json.object(
+                    "range", range(analysis, decl.getBodyOffset(), decl.getBodyOffset()),
+                    "newText", this.constructorsText(analysis, decl, missing)
+            );
+
+            actions.add(Json.object(
+                    "title", ConstructorGenerator.TITLE,
+                    "kind", "quickfix",
+                    "diagnostics", this.diagnose(analysis, decl, missing),
+                    "isPreferred", true,
+                    "edit", Json.object(
+                            "changes", Json.object(
+                                    uri, Collections.singletonList(edit)
+                            )
+                    )
+            ));
+        }
+
+        return actions;
+    }
+
+    @NotNull
+    private List<Diagnostics> replace(
+            final @NotNull String key,
+            final @Nullable SourceFile file
+    ) {
+        final SourceFile old = file != null ? this.files.put(key, file) : this.files.remove(key);
+        final Set<String> affected = this.index.replace(old, file);
+
+        final List<Diagnostics> diagnostics = new ArrayList<>();
+        for (final Map.Entry<String, Analysis> entry : this.open.entrySet()) {
+            final Analysis analysis = entry.getValue();
+            if (entry.getKey().equals(key) || declaresAny(analysis.file, affected)) {
+                diagnostics.add(this.diagnose(analysis));
+            }
+        }
+
+        return diagnostics;
+    }
+
+    @NotNull
+    private Diagnostics diagnose(final @NotNull Analysis analysis) {
+        final List<Object> diagnostics = new ArrayList<>();
+        for (final ClassDeclaration decl : analysis.file.getClasses()) {
+            final int missing = this.checker.missing(decl);
+            if (missing != 0) {
+                diagnostics.addAll(this.diagnose(analysis, decl, missing));
+            }
+        }
+
+        final TextDocument document = analysis.document;
+        return new Diagnostics(document.getUri(), document.getVersion(), diagnostics);
+    }
+
+    @NotNull
+    private List<Object> diagnose(
+            final @NotNull Analysis analysis,
+            final @NotNull ClassDeclaration decl,
+            final int missing
+    ) {
+        final int start = decl.getNameOffset();
+        final int end = start + decl.getName().getBytes(StandardCharsets.UTF_8).length;
+
+        final List<Object> diagnostics = new ArrayList<>();
+        for (int i = 0; i < RuleOfFour.CONSTRUCTOR_COUNT; ++i) {
+            if ((missing & (1 << i)) != 0) {
+                diagnostics.add(Json.object(
+                        "range", range(analysis, start, end),
+                        "severity", SEVERITY_WARNING,
+                        "source", SOURCE,
+                        "message", RuleOfFour.describeMissing(i, this.exceptionAsCause)
+                ));
+            }
+        }
+
+        return diagnostics;
+    }
+
+    /**
+     * Generates the text to insert just past the opening brace of a class body.
+     *
+     * The constructors are indented one level deeper than the line declaring the class, using
+     * tabs if that line is indented with tabs.
+     */
+    @NotNull
+    private String constructorsText(
+            final @NotNull Analysis analysis,
+            final @NotNull ClassDeclaration decl,
+            final int missing
+    ) {
+        final byte[] bytes = analysis.lines.getBytes();
+
+        int pos = analysis.lines.lineStart(analysis.lines.line(decl.getNameOffset()));
+        final int indentStart = pos;
+        while (pos < bytes.length && (bytes[pos] == ' ' || bytes[pos] == '\t')) {
+            ++pos;
+        }
+        final String indent = new String(bytes, indentStart, pos - indentStart,
+                StandardCharsets.US_ASCII);
+        final String memberIndent = indent + (indent.indexOf('\t') >= 0 ? "\t" : "    ");
+
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < RuleOfFour.CONSTRUCTOR_COUNT; ++i) {
+            if ((missing & (1 << i)) == 0) {
+                continue;
+            }
+
+            text.append(text.length() == 0 ? "\n" : "\n\n");
+            final String ctor = ConstructorGenerator.generate(decl.getName(), i, this.options);
+            for (final String line : ctor.split("\n", -1)) {
+                text.append(memberIndent).append(line).append('\n');
+            }
+            text.setLength(text.length() - 1);
+        }
+
+        // Keep the brace that follows on its own line and members apart from the constructors.
+        pos = decl.getBodyOffset();
+        while (pos < bytes.length && (bytes[pos] == ' ' || bytes[pos] == '\t')) {
+            ++pos;
+        }
+
+        if (pos < bytes.length && (bytes[pos] == '\n' || bytes[pos] == '\r')) {
+            while (pos < bytes.length && Character.isWhitespace(bytes[pos])) {
+                ++pos;
+            }
+
+            if (pos >= bytes.length || bytes[pos] != '}') {
+                text.append('\n');
+            }
+        } else {
+            text.append('\n').append(indent);
+        }
+
+        return text.toString();
+    }
+
+    @NotNull
+    private static Map<String, Object> range(
+            final @NotNull Analysis analysis,
+            final int start,
+            final int end
+    ) {
+        return Json.object(
+                "start", analysis.lines.position(start),
+                "end", analysis.lines.position(end)
+        );
+    }
+
+    private static boolean declaresAny(
+            final @NotNull SourceFile file,
+            final @NotNull Set<String> qualifiedNames
+    ) {
+        for (final ClassDeclaration decl : file.getClasses()) {
+            if (qualifiedNames.contains(decl.getQualifiedName())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Maps a document URI to the path the scanner knows the file by.
+     *
+     * @param uri the URI of the document
+     *
+     * @return the path of the file for {@code file:} URIs, the URI itself otherwise
+     */
+    @NotNull
+    public static String keyOf(final @NotNull String uri) {
+        try {
+            final URI parsed = URI.create(uri);
+            if ("file".equalsIgnoreCase(parsed.getScheme())) {
+                return Paths.get(parsed).toString();
+            }
+        } catch (final IllegalArgumentException ex) {
+            // Not a URI the file system understands; use it as is.
+        }
+
+        return uri;
+    }
+
+    /**
+     * The analysis of an open document.
+     */
+    private static final class Analysis {
+        private final @NotNull TextDocument document;
+        private final @NotNull LineMap lines;
+        private final @NotNull SourceFile file;
+
+        private Analysis(
+                final @NotNull TextDocument document,
+                final @NotNull LineMap lines,
+                final @NotNull SourceFile file
+        ) {
+            this.document = document;
+            this.lines = lines;
+            this.file = file;
+        }
+    }
+}
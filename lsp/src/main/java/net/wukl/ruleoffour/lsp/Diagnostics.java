@@ -0,0 +1,49 @@
+package net.wukl.ruleoffour.lsp;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * The diagnostics of a document, together with the version of the snapshot they were computed
+ * from.
+ */
+public final class Diagnostics {
+    private final @NotNull String uri;
+    private final @Nullable Integer version;
+    private final @NotNull List<Object> items;
+
+    /**
+     * Creates a new set of diagnostics.
+     *
+     * @param uri the URI of the document
+     * @param version the version of the analysed snapshot, or {@code null} if the document is not
+     *                open in the editor
+     * @param items the {@code Diagnostic}s
+     */
+    public Diagnostics(
+            final @NotNull String uri,
+            final @Nullable Integer version,
+            final @NotNull List<Object> items
+    ) {
+        this.uri = uri;
+        this.version = version;
+        this.items = items;
+    }
+
+    @NotNull
+    public String getUri() {
+        return this.uri;
+    }
+
+    @Nullable
+    public Integer getVersion() {
+        return this.version;
+    }
+
+    @NotNull
+    public List<Object> getItems() {
+        return this.items;
+    }
+}
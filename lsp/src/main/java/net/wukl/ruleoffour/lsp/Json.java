@@ -0,0 +1,436 @@
+package net.wukl.ruleoffour.lsp;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal JSON reader and writer covering what the language server protocol needs.
+ *
+ * Objects are represented as {@link Map}s, arrays as {@link List}s, integral numbers as
+ * {@link Long}s and other numbers as {@link Double}s.
+ */
+public final class Json {
+    private final @NotNull String text;
+    private int pos;
+
+    private Json(final @NotNull String text) {
+        this.text = text;
+    }
+
+    /**
+     * Parses a JSON document.
+     *
+     * @param text the document
+     *
+     * @return the value of the document
+     *
+     * @throws IllegalArgumentException if the document is not valid JSON
+     */
+    @Nullable
+    public static Object parse(final @NotNull String text) {
+        final Json json = new Json(text);
+        final Object value = json.value();
+        json.skipWhitespace();
+        if (json.pos != text.length()) {
+            throw json.error("Trailing characters");
+        }
+
+        return value;
+    }
+
+    /**
+     * Serializes a value to JSON.
+     *
+     * @param value the value, made up of maps, lists, strings, numbers, booleans and nulls
+     *
+     * @return the JSON text
+     */
+    @NotNull
+    public static String write(final @Nullable Object value) {
+        final StringBuilder out = new StringBuilder(256);
+        write(out, value);
+        return out.toString();
+    }
+
+    /**
+     * Creates a JSON object from alternating keys and values, skipping {@code null} values.
+     *
+     * @param keysAndValues the keys, each followed by its value
+     *
+     * @return the object
+     */
+    @NotNull
+    public static Map<String, Object> object(final @NotNull Object... keysAndValues) {
+        final Map<String, Object> object = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            if (keysAndValues[i + 1] != null) {
+                object.put((String) keysAndValues[i], keysAndValues[i + 1]);
+            }
+        }
+
+        return object;
+    }
+
+    /**
+     * Returns a member of an object that is itself an object.
+     *
+     * @param object the object, may be {@code null}
+     * @param key the name of the member
+     *
+     * @return the member, or {@code null} if the object or the member is missing or not an object
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> getObject(
+            final @Nullable Map<String, Object> object,
+            final @NotNull String key
+    ) {
+        final Object value = object == null ? null : object.get(key);
+        return value instanceof Map ? (Map<String, Object>) value : null;
+    }
+
+    /**
+     * Returns a member of an object that is an array.
+     *
+     * @param object the object, may be {@code null}
+     * @param key the name of the member
+     *
+     * @return the member, or {@code null} if the object or the member is missing or not an array
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public static List<Object> getArray(
+            final @Nullable Map<String, Object> object,
+            final @NotNull String key
+    ) {
+        final Object value = object == null ? null : object.get(key);
+        return value instanceof List ? (List<Object>) value : null;
+    }
+
+    /**
+     * Returns a member of an object that is a string.
+     *
+     * @param object the object, may be {@code null}
+     * @param key the name of the member
+     *
+     * @return the member, or {@code null} if the object or the member is missing or not a string
+     */
+    @Nullable
+    public static String getString(
+            final @Nullable Map<String, Object> object,
+            final @NotNull String key
+    ) {
+        final Object value = object == null ? null : object.get(key);
+        return value instanceof String ? (String) value : null;
+    }
+
+    /**
+     * Returns a member of an object that is a number.
+     *
+     * @param object the object, may be {@code null}
+     * @param key the name of the member
+     * @param otherwise the value to return if the member is missing or not a number
+     *
+     * @return the member as an {@code int}
+     */
+    public static int getInt(
+            final @Nullable Map<String, Object> object,
+            final @NotNull String key,
+            final int otherwise
+    ) {
+        final Object value = object == null ? null : object.get(key);
+        return value instanceof Number ? ((Number) value).intValue() : otherwise;
+    }
+
+    /**
+     * Returns a member of an object that is a boolean.
+     *
+     * @param object the object, may be {@code null}
+     * @param key the name of the member
+     * @param otherwise the value to return if the member is missing or not a boolean
+     *
+     * @return the member
+     */
+    public static boolean getBoolean(
+            final @Nullable Map<String, Object> object,
+            final @NotNull String key,
+            final boolean otherwise
+    ) {
+        final Object value = object == null ? null : object.get(key);
+        return value instanceof Boolean ? (Boolean) value : otherwise;
+    }
+
+    @Nullable
+    private Object value() {
+        this.skipWhitespace();
+        if (this.pos >= this.text.length()) {
+            throw this.error("Unexpected end of input");
+        }
+
+        final char c = this.text.charAt(this.pos);
+        switch (c) {
+            case '{':
+                return this.object();
+            case '[':
+                return this.array();
+            case '"':
+                return this.string();
+            case 't':
+                this.literal("true");
+                return Boolean.TRUE;
+            case 'f':
+                this.literal("false");
+                return Boolean.FALSE;
+            case 'n':
+                this.literal("null");
+                return null;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return this.number();
+                }
+
+                throw this.error("Unexpected character '" + c + "'");
+        }
+    }
+
+    @NotNull
+    private Map<String, Object> object() {
+        final Map<String, Object> object = new LinkedHashMap<>();
+        ++this.pos;
+        this.skipWhitespace();
+        if (this.consume('}')) {
+            return object;
+        }
+
+        do {
+            this.skipWhitespace();
+            if (this.pos >= this.text.length() || this.text.charAt(this.pos) != '"') {
+                throw this.error("Expected a member name");
+            }
+
+            final String key = this.string();
+            this.skipWhitespace();
+            if (!this.consume(':')) {
+                throw this.error("Expected ':'");
+            }
+
+            object.put(key, this.value());
+            this.skipWhitespace();
+        } while (this.consume(','));
+
+        if (!this.consume('}')) {
+            throw this.error("Expected ',' or '}'");
+        }
+
+        return object;
+    }
+
+    @NotNull
+    private List<Object> array() {
+        final List<Object> array = new ArrayList<>();
+        ++this.pos;
+        this.skipWhitespace();
+        if (this.consume(']')) {
+            return array;
+        }
+
+        do {
+            array.add(this.value());
+            this.skipWhitespace();
+        } while (this.consume(','));
+
+        if (!this.consume(']')) {
+            throw this.error("Expected ',' or ']'");
+        }
+
+        return array;
+    }
+
+    @NotNull
+    private String string() {
+        ++this.pos;
+        final StringBuilder str = new StringBuilder();
+
+        while (this.pos < this.text.length()) {
+            final char c = this.text.charAt(this.pos++);
+            if (c == '"') {
+                return str.toString();
+            } else if (c != '\\') {
+                str.append(c);
+                continue;
+            }
+
+            if (this.pos >= this.text.length()) {
+                break;
+            }
+
+            final char escape = this.text.charAt(this.pos++);
+            switch (escape) {
+                case 'b':
+                    str.append('\b');
+                    break;
+                case 'f':
+                    str.append('\f');
+                    break;
+                case 'n':
+                    str.append('\n');
+                    break;
+                case 'r':
+                    str.append('\r');
+                    break;
+                case 't':
+                    str.append('\t');
+                    break;
+                case 'u':
+                    if (this.pos + 4 > this.text.length()) {
+                        throw this.error("Truncated unicode escape");
+                    }
+
+                    try {
+                        str.append((char) Integer.parseInt(
+                                this.text.substring(this.pos, this.pos + 4), 16
+                        ));
+                    } catch (final NumberFormatException ex) {
+                        throw this.error("Invalid unicode escape");
+                    }
+                    this.pos += 4;
+                    break;
+                default:
+                    str.append(escape);
+                    break;
+            }
+        }
+
+        throw this.error("Unterminated string");
+    }
+
+    @NotNull
+    private Number number() {
+        final int start = this.pos;
+        boolean integral = true;
+
+        while (this.pos < this.text.length()) {
+            final char c = this.text.charAt(this.pos);
+            if (c == '.' || c == 'e' || c == 'E') {
+                integral = false;
+            } else if (c != '-' && c != '+' && (c < '0' || c > '9')) {
+                break;
+            }
+            ++this.pos;
+        }
+
+        final String number = this.text.substring(start, this.pos);
+        try {
+            return integral ? (Number) Long.parseLong(number) : (Number) Double.parseDouble(number);
+        } catch (final NumberFormatException ex) {
+            throw this.error("Invalid number " + number);
+        }
+    }
+
+    private void literal(final @NotNull String word) {
+        if (!this.text.startsWith(word, this.pos)) {
+            throw this.error("Expected " + word);
+        }
+
+        this.pos += word.length();
+    }
+
+    private boolean consume(final char c) {
+        if (this.pos < this.text.length() && this.text.charAt(this.pos) == c) {
+            ++this.pos;
+            return true;
+        }
+
+        return false;
+    }
+
+    private void skipWhitespace() {
+        while (this.pos < this.text.length()) {
+            final char c = this.text.charAt(this.pos);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return;
+            }
+            ++this.pos;
+        }
+    }
+
+    @NotNull
+    private IllegalArgumentException error(final @NotNull String message) {
+        return new IllegalArgumentException(message + " at offset " + this.pos);
+    }
+
+    private static void write(final @NotNull StringBuilder out, final @Nullable Object value) {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof String) {
+            writeString(out, (String) value);
+        } else if (value instanceof Number || value instanceof Boolean) {
+            out.append(value);
+        } else if (value instanceof Map) {
+            out.append('{');
+            boolean first = true;
+            for (final Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+
+                writeString(out, String.valueOf(entry.getKey()));
+                out.append(':');
+                write(out, entry.getValue());
+            }
+            out.append('}');
+        } else if (value instanceof List) {
+            out.append('[');
+            boolean first = true;
+            for (final Object element : (List<?>) value) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+
+                write(out, element);
+            }
+            out.append(']');
+        } else {
+            throw new IllegalArgumentException("Cannot serialize " + value.getClass());
+        }
+    }
+
+    private static void writeString(final @NotNull StringBuilder out, final @NotNull String str) {
+        out.append('"');
+        for (int i = 0; i < str.length(); ++i) {
+            final char c = str.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                    break;
+            }
+        }
+        out.append('"');
+    }
+}
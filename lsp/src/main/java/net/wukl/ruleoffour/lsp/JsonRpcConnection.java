@@ -0,0 +1,163 @@
+package net.wukl.ruleoffour.lsp;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads and writes JSON-RPC messages framed with {@code Content-Length} headers, as used by the
+ * language server protocol over standard input and output.
+ *
+ * Messages can be sent from any thread; reading is meant for a single thread.
+ */
+public final class JsonRpcConnection {
+    private static final String CONTENT_LENGTH = "content-length:";
+
+    /**
+     * The largest message that is read; larger messages are skipped.
+     */
+    static final int MAX_CONTENT_LENGTH = 64 << 20;
+
+    /**
+     * The longest header line that is accepted.
+     */
+    private static final int MAX_HEADER_LENGTH = 8192;
+
+    private final @NotNull InputStream in;
+    private final @NotNull OutputStream out;
+
+    /**
+     * Creates a new connection.
+     *
+     * @param in the stream to read messages from
+     * @param out the stream to write messages to
+     */
+    public JsonRpcConnection(final @NotNull InputStream in, final @NotNull OutputStream out) {
+        this.in = new BufferedInputStream(in);
+        this.out = out;
+    }
+
+    /**
+     * Reads the next message.
+     *
+     * @return the message, or {@code null} if the stream has ended
+     *
+     * @throws IOException if the stream could not be read or the framing is broken
+     * @throws IllegalArgumentException if the message is not a valid JSON object or too large to
+     *                                  be read; the next message can be read nevertheless
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> read() throws IOException {
+        int length = -1;
+
+        while (true) {
+            final String header = this.readLine();
+            if (header == null) {
+                if (length < 0) {
+                    return null;
+                }
+                throw new EOFException("Stream ended in the headers of a message");
+            }
+
+            if (header.isEmpty()) {
+                if (length >= 0) {
+                    break;
+                }
+                continue;
+            }
+
+            if (header.toLowerCase(Locale.ROOT).startsWith(CONTENT_LENGTH)) {
+                try {
+                    length = Integer.parseInt(header.substring(CONTENT_LENGTH.length()).trim());
+                } catch (final NumberFormatException ex) {
+                    throw new IOException("Invalid header: " + header, ex);
+                }
+
+                if (length < 0) {
+                    throw new IOException("Invalid header: " + header);
+                }
+            }
+        }
+
+        if (length > MAX_CONTENT_LENGTH) {
+            this.skip(length);
+            throw new IllegalArgumentException("Message of " + length + " bytes is too large");
+        }
+
+        final byte[] content = new byte[length];
+        int read = 0;
+        while (read < length) {
+            final int n = this.in.read(content, read, length - read);
+            if (n < 0) {
+                throw new EOFException("Stream ended in the content of a message");
+            }
+            read += n;
+        }
+
+        final Object message = Json.parse(new String(content, StandardCharsets.UTF_8));
+        if (!(message instanceof Map)) {
+            throw new IllegalArgumentException("Message is not a JSON object");
+        }
+
+        return (Map<String, Object>) message;
+    }
+
+    /**
+     * Sends a message.
+     *
+     * @param message the message
+     *
+     * @throws IOException if the message could not be written
+     */
+    public void send(final @NotNull Map<String, Object> message) throws IOException {
+        final byte[] content = Json.write(message).getBytes(StandardCharsets.UTF_8);
+        final byte[] header = ("Content-Length: " + content.length + "\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+
+        synchronized (this.out) {
+            this.out.write(header);
+            this.out.write(content);
+            this.out.flush();
+        }
+    }
+
+    private void skip(final int length) throws IOException {
+        final byte[] buf = new byte[8192];
+        int skipped = 0;
+        while (skipped < length) {
+            final int n = this.in.read(buf, 0, Math.min(buf.length, length - skipped));
+            if (n < 0) {
+                throw new EOFException("Stream ended in the content of a message");
+            }
+            skipped += n;
+        }
+    }
+
+    @Nullable
+    private String readLine() throws IOException {
+        final ByteArrayOutputStream line = new ByteArrayOutputStream(32);
+        while (true) {
+            final int b = this.in.read();
+            if (b < 0) {
+                return line.size() == 0 ? null : line.toString("US-ASCII");
+            } else if (b == '\n') {
+                return line.toString("US-ASCII");
+            } else if (b != '\r') {
+                if (line.size() == MAX_HEADER_LENGTH) {
+                    throw new IOException("Header line exceeds " + MAX_HEADER_LENGTH + " bytes");
+                }
+                line.write(b);
+            }
+        }
+    }
+}
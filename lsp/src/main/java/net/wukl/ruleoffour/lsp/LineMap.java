@@ -0,0 +1,97 @@
+package net.wukl.ruleoffour.lsp;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Converts byte offsets in UTF-8 source code, as reported by the scanner, to LSP positions.
+ *
+ * LSP positions consist of a zero-based line and a zero-based character offset counted in UTF-16
+ * code units. Lines end at {@code \n}, {@code \r\n} or a lone {@code \r}.
+ */
+public final class LineMap {
+    private final @NotNull byte[] bytes;
+    private final @NotNull int[] lineStarts;
+    private final int lineCount;
+
+    /**
+     * Creates a new line map.
+     *
+     * @param bytes the UTF-8 encoded source code; must not be modified afterwards
+     */
+    public LineMap(final @NotNull byte[] bytes) {
+        this.bytes = bytes;
+
+        int[] starts = new int[64];
+        int count = 1;
+        for (int i = 0; i < bytes.length; ++i) {
+            final byte b = bytes[i];
+            if (b == '\n' || (b == '\r' && (i + 1 >= bytes.length || bytes[i + 1] != '\n'))) {
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                }
+                starts[count++] = i + 1;
+            }
+        }
+
+        this.lineStarts = starts;
+        this.lineCount = count;
+    }
+
+    /**
+     * Returns the source code the map was created for.
+     *
+     * @return the UTF-8 encoded source code; do not modify
+     */
+    @NotNull
+    public byte[] getBytes() {
+        return this.bytes;
+    }
+
+    /**
+     * Returns the zero-based line containing a byte offset.
+     *
+     * @param offset the byte offset
+     *
+     * @return the line
+     */
+    public int line(final int offset) {
+        final int found = Arrays.binarySearch(this.lineStarts, 0, this.lineCount, offset);
+        return found >= 0 ? found : -found - 2;
+    }
+
+    /**
+     * Returns the byte offset of the start of a line.
+     *
+     * @param line the zero-based line
+     *
+     * @return the byte offset
+     */
+    public int lineStart(final int line) {
+        return this.lineStarts[Math.max(0, Math.min(line, this.lineCount - 1))];
+    }
+
+    /**
+     * Converts a byte offset to a position.
+     *
+     * @param offset the byte offset
+     *
+     * @return the LSP position
+     */
+    @NotNull
+    public Map<String, Object> position(final int offset) {
+        final int line = this.line(offset);
+        int character = 0;
+        for (int i = this.lineStarts[line]; i < offset && i < this.bytes.length; ++i) {
+            final int b = this.bytes[i] & 0xFF;
+            if ((b & 0xC0) != 0x80) {
+                // Four-byte sequences encode characters outside the BMP, i.e. surrogate pairs.
+                character += (b & 0xF8) == 0xF0 ? 2 : 1;
+            }
+        }
+
+        return Json.object("line", line, "character", character);
+    }
+}
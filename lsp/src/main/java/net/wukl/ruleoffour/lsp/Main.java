@@ -0,0 +1,38 @@
+package net.wukl.ruleoffour.lsp;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.PrintStream;
+
+/**
+ * Command line entry point of the language server, speaking the protocol over standard input and
+ * output.
+ */
+public final class Main {
+    private Main() {
+    }
+
+    /**
+     * Runs the language server.
+     *
+     * @param args the command line arguments, none of which are used
+     */
+    public static void main(final @NotNull String[] args) {
+        // Standard output carries the protocol; make sure nothing else ends up there.
+        final PrintStream out = System.out;
+        System.setOut(System.err);
+
+        int status;
+        try {
+            status = new RuleOfFourServer(
+                    System.in, out, RuleOfFourServer.DEFAULT_DEBOUNCE_MILLIS
+            ).run();
+        } catch (final IOException ex) {
+            System.err.println("ruleoffour: " + ex.getMessage());
+            status = 1;
+        }
+
+        System.exit(status);
+    }
+}
@@ -0,0 +1,444 @@
+package net.wukl.ruleoffour.lsp;
+
+import net.wukl.ruleoffour.engine.GeneratorOptions;
+import net.wukl.ruleoffour.scanner.ClasspathFallback;
+import net.wukl.ruleoffour.scanner.ResolutionFallback;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A language server publishing Rule of Four diagnostics and offering to generate the missing
+ * constructors.
+ *
+ * Messages are read on the calling thread. All analysis happens on a single worker thread, so the
+ * {@link Analyzer} never sees concurrent access. Changes to a document are debounced: a change
+ * schedules an analysis of the document a short while later, replacing any analysis of the same
+ * document that has not started yet.
+ *
+ * The server understands the following initialization options, all optional:
+ * {@code exceptionAsCause}, {@code javadoc}, {@code exactNameInDoc}, {@code emptySuper},
+ * {@code finalParams} and {@code nullableParams} mirror the settings of the IDE plugin;
+ * {@code classpath} is an array of library paths to resolve names outside the workspace with.
+ */
+public final class RuleOfFourServer {
+    /**
+     * The default time to wait for more changes before analysing a document, in milliseconds.
+     */
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 15;
+
+    private static final int TEXT_DOCUMENT_SYNC_INCREMENTAL = 2;
+
+    private static final int PARSE_ERROR = -32700;
+    private static final int INVALID_REQUEST = -32600;
+    private static final int METHOD_NOT_FOUND = -32601;
+    private static final int INTERNAL_ERROR = -32603;
+
+    private final @NotNull JsonRpcConnection connection;
+    private final long debounceMillis;
+    private final @NotNull ScheduledExecutorService worker;
+
+    private final @NotNull Map<String, TextDocument> documents = new ConcurrentHashMap<>();
+    private final @NotNull Map<String, ScheduledFuture<?>> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Only accessed on the worker thread.
+     */
+    private @Nullable Analyzer analyzer;
+
+    /**
+     * The classpath the analyzer resolves names with, closed when the server exits.
+     */
+    private @Nullable ClasspathFallback classpath;
+
+    private boolean initialized;
+    private boolean shutdown;
+
+    /**
+     * Creates a new server.
+     *
+     * @param in the stream to read messages from
+     * @param out the stream to write messages to
+     * @param debounceMillis the time to wait for more changes before analysing a document
+     */
+    public RuleOfFourServer(
+            final @NotNull InputStream in,
+            final @NotNull OutputStream out,
+            final long debounceMillis
+    ) {
+        this.connection = new JsonRpcConnection(in, out);
+        this.debounceMillis = debounceMillis;
+        this.worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread thread = new Thread(r, "ruleoffour-analysis");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Serves requests until the client sends {@code exit} or closes the input stream.
+     *
+     * @return the exit status: 0 if the client shut the server down first, 1 otherwise
+     *
+     * @throws IOException if the connection failed
+     */
+    public int run() throws IOException {
+        try {
+            while (true) {
+                final Map<String, Object> message;
+                try {
+                    message = this.connection.read();
+                } catch (final IllegalArgumentException ex) {
+                    this.sendError(null, PARSE_ERROR, ex.getMessage());
+                    continue;
+                }
+
+                if (message == null) {
+                    return 1;
+                }
+
+                final String method = Json.getString(message, "method");
+                if ("exit".equals(method)) {
+                    return this.shutdown ? 0 : 1;
+                }
+
+                if (method != null) {
+                    this.dispatch(method, message.get("id"), Json.getObject(message, "params"));
+                }
+            }
+        } finally {
+            this.worker.shutdownNow();
+            try {
+                // An analysis that is still running may be using the classpath.
+                if (this.worker.awaitTermination(1, TimeUnit.SECONDS)) {
+                    this.closeClasspath();
+                }
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void closeClasspath() {
+        if (this.classpath == null) {
+            return;
+        }
+
+        try {
+            this.classpath.close();
+        } catch (final IOException ex) {
+            System.err.println("ruleoffour: unable to close the classpath: " + ex);
+        }
+        this.classpath = null;
+    }
+
+    private void dispatch(
+            final @NotNull String method,
+            final @Nullable Object id,
+            final @Nullable Map<String, Object> params
+    ) throws IOException {
+        if (this.shutdown && id != null) {
+            this.sendError(id, INVALID_REQUEST, "The server has been shut down");
+            return;
+        }
+
+        switch (method) {
+            case "initialize":
+                if (this.initialized) {
+                    this.sendError(id, INVALID_REQUEST, "The server has already been initialized");
+                } else {
+                    this.initialize(id, params);
+                }
+                break;
+            case "shutdown":
+                this.shutdown = true;
+                this.sendResult(id, null);
+                break;
+            case "textDocument/didOpen":
+                this.didOpen(Json.getObject(params, "textDocument"));
+                break;
+            case "textDocument/didChange":
+                this.didChange(params);
+                break;
+            case "textDocument/didClose":
+                this.didClose(Json.getObject(params, "textDocument"));
+                break;
+            case "textDocument/codeAction":
+                this.codeAction(id, params);
+                break;
+            default:
+                // Notifications we do not care about may be ignored; requests may not.
+                if (id != null && !method.startsWith("$/")) {
+                    this.sendError(id, METHOD_NOT_FOUND, "Unsupported method " + method);
+                }
+                break;
+        }
+    }
+
+    private void initialize(final @Nullable Object id, final @Nullable Map<String, Object> params)
+            throws IOException {
+        final Map<String, Object> init = Json.getObject(params, "initializationOptions");
+
+        final GeneratorOptions options = new GeneratorOptions();
+        options.setJavadocEnabled(Json.getBoolean(init, "javadoc", true));
+        options.setExactNameInDocEnabled(Json.getBoolean(init, "exactNameInDoc", false));
+        options.setEmptySuperEnabled(Json.getBoolean(init, "emptySuper", true));
+        options.setFinalParamsEnabled(Json.getBoolean(init, "finalParams", true));
+        options.setNullableParamsEnabled(Json.getBoolean(init, "nullableParams", false));
+        options.setExceptionAsCauseEnabled(Json.getBoolean(init, "exceptionAsCause", false));
+
+        ResolutionFallback fallback = ResolutionFallback.NONE;
+        final List<Object> classpath = Json.getArray(init, "classpath");
+        if (classpath != null && !classpath.isEmpty()) {
+            final List<Path> entries = new ArrayList<>();
+            for (final Object entry : classpath) {
+                entries.add(Paths.get(String.valueOf(entry)));
+            }
+
+            try {
+                this.classpath = new ClasspathFallback(entries);
+                fallback = this.classpath;
+            } catch (final MalformedURLException ex) {
+                this.sendError(id, INTERNAL_ERROR, "Invalid classpath: " + ex.getMessage());
+                return;
+            }
+        }
+
+        this.initialized = true;
+        final List<Path> roots = workspaceRoots(params);
+        final Analyzer created = new Analyzer(fallback, options);
+        this.worker.execute(() -> {
+            this.analyzer = created;
+            if (!roots.isEmpty()) {
+                try {
+                    this.publish(created.loadWorkspace(roots));
+                } catch (final IOException | RuntimeException ex) {
+                    System.err.println("ruleoffour: unable to scan the workspace: " + ex);
+                }
+            }
+        });
+
+        this.sendResult(id, Json.object(
+                "capabilities", Json.object(
+                        "textDocumentSync", Json.object(
+                                "openClose", true,
+                                "change", TEXT_DOCUMENT_SYNC_INCREMENTAL
+                        ),
+                        "codeActionProvider", Json.object(
+                                "codeActionKinds", Collections.singletonList("quickfix")
+                        )
+                ),
+                "serverInfo", Json.object("name", "ruleoffour")
+        ));
+    }
+
+    private void didOpen(final @Nullable Map<String, Object> item) {
+        final String uri = Json.getString(item, "uri");
+        final String text = Json.getString(item, "text");
+        if (uri == null || text == null) {
+            return;
+        }
+
+        this.documents.put(uri, new TextDocument(uri, Json.getInt(item, "version", 0), text));
+        this.schedule(uri, 0);
+    }
+
+    private void didChange(final @Nullable Map<String, Object> params) {
+        final Map<String, Object> id = Json.getObject(params, "textDocument");
+        final String uri = Json.getString(id, "uri");
+        final List<Object> changes = Json.getArray(params, "contentChanges");
+        if (uri == null || changes == null) {
+            return;
+        }
+
+        final int version = Json.getInt(id, "version", 0);
+        final TextDocument changed = this.documents.computeIfPresent(
+                uri, (k, doc) -> doc.edit(version, changes)
+        );
+
+        if (changed != null) {
+            this.schedule(uri, this.debounceMillis);
+        }
+    }
+
+    private void didClose(final @Nullable Map<String, Object> item) {
+        final String uri = Json.getString(item, "uri");
+        if (uri == null || this.documents.remove(uri) == null) {
+            return;
+        }
+
+        final ScheduledFuture<?> task = this.pending.remove(uri);
+        if (task != null) {
+            task.cancel(false);
+        }
+
+        this.worker.execute(() -> {
+            if (this.analyzer != null) {
+                this.publish(this.analyzer.close(uri));
+            }
+        });
+    }
+
+    private void codeAction(final @Nullable Object id, final @Nullable Map<String, Object> params) {
+        final String uri = Json.getString(Json.getObject(params, "textDocument"), "uri");
+        final Map<String, Object> range = Json.getObject(params, "range");
+
+        this.worker.execute(() -> {
+            try {
+                final List<Object> actions;
+                if (uri == null || this.analyzer == null) {
+                    actions = Collections.emptyList();
+                } else {
+                    // Edits must apply to the text the editor has now, so catch up first.
+                    this.analyze(uri);
+                    actions = this.analyzer.codeActions(uri, range);
+                }
+
+                this.sendResult(id, actions);
+            } catch (final IOException ex) {
+                System.err.println("ruleoffour: unable to send a response: " + ex);
+            } catch (final RuntimeException ex) {
+                this.sendErrorQuietly(id, ex);
+            }
+        });
+    }
+
+    /**
+     * Schedules an analysis of a document, superseding any that has not started yet.
+     */
+    private void schedule(final @NotNull String uri, final long delayMillis) {
+        this.pending.compute(uri, (k, previous) -> {
+            if (previous != null) {
+                previous.cancel(false);
+            }
+
+            // The task may start before compute returns, so it only learns of its own future
+            // once it has been stored; computing on the same key waits for that.
+            final AtomicReference<ScheduledFuture<?>> self = new AtomicReference<>();
+            final ScheduledFuture<?> task = this.worker.schedule(() -> {
+                this.pending.computeIfPresent(uri, (key, current) ->
+                        current == self.get() ? null : current
+                );
+                this.analyze(uri);
+            }, delayMillis, TimeUnit.MILLISECONDS);
+
+            self.set(task);
+            return task;
+        });
+    }
+
+    /**
+     * Analyses the latest snapshot of a document on the worker thread, unless it already has been.
+     */
+    private void analyze(final @NotNull String uri) {
+        final TextDocument document = this.documents.get(uri);
+        if (document == null || this.analyzer == null
+                || this.analyzer.getAnalysed(uri) == document) {
+            return;
+        }
+
+        try {
+            this.publish(this.analyzer.update(document));
+        } catch (final RuntimeException ex) {
+            System.err.println("ruleoffour: unable to analyse " + uri + ": " + ex);
+        }
+    }
+
+    private void publish(final @NotNull List<Diagnostics> diagnostics) {
+        for (final Diagnostics published : diagnostics) {
+            try {
+                this.connection.send(Json.object(
+                        "jsonrpc", "2.0",
+                        "method", "textDocument/publishDiagnostics",
+                        "params", Json.object(
+                                "uri", published.getUri(),
+                                "version", published.getVersion(),
+                                "diagnostics", published.getItems()
+                        )
+                ));
+            } catch (final IOException ex) {
+                System.err.println("ruleoffour: unable to publish diagnostics: " + ex);
+            }
+        }
+    }
+
+    private void sendResult(final @Nullable Object id, final @Nullable Object result)
+            throws IOException {
+        final Map<String, Object> response = Json.object("jsonrpc", "2.0", "id", id);
+        response.put("result", result);
+        this.connection.send(response);
+    }
+
+    private void sendError(
+            final @Nullable Object id,
+            final int code,
+            final @Nullable String message
+    ) throws IOException {
+        final Map<String, Object> response = Json.object("jsonrpc", "2.0");
+        response.put("id", id);
+        response.put("error", Json.object("code", code, "message", String.valueOf(message)));
+        this.connection.send(response);
+    }
+
+    private void sendErrorQuietly(final @Nullable Object id, final @NotNull Exception ex) {
+        try {
+            this.sendError(id, INTERNAL_ERROR, ex.toString());
+        } catch (final IOException sendFailure) {
+            System.err.println("ruleoffour: unable to send a response: " + sendFailure);
+        }
+    }
+
+    @NotNull
+    private static List<Path> workspaceRoots(final @Nullable Map<String, Object> params) {
+        final List<String> uris = new ArrayList<>();
+
+        final List<Object> folders = Json.getArray(params, "workspaceFolders");
+        if (folders != null) {
+            for (final Object folder : folders) {
+                if (folder instanceof Map) {
+                    @SuppressWarnings("unchecked")
+                    final String uri = Json.getString((Map<String, Object>) folder, "uri");
+                    if (uri != null) {
+                        uris.add(uri);
+                    }
+                }
+            }
+        }
+
+        final String rootUri = Json.getString(params, "rootUri");
+        if (uris.isEmpty() && rootUri != null) {
+            uris.add(rootUri);
+        }
+
+        final List<Path> roots = new ArrayList<>();
+        for (final String uri : uris) {
+            try {
+                final Path root = Paths.get(Analyzer.keyOf(uri));
+                if (root.isAbsolute() && root.toFile().isDirectory()) {
+                    roots.add(root);
+                }
+            } catch (final InvalidPathException ex) {
+                // Not on the local file system; nothing to scan.
+            }
+        }
+
+        return roots;
+    }
+}
@@ -0,0 +1,125 @@
+package net.wukl.ruleoffour.lsp;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of a document opened in the editor.
+ */
+public final class TextDocument {
+    private final @NotNull String uri;
+    private final int version;
+    private final @NotNull String text;
+
+    /**
+     * Creates a new snapshot.
+     *
+     * @param uri the URI of the document
+     * @param version the version of the document as assigned by the editor
+     * @param text the full text of the document
+     */
+    public TextDocument(final @NotNull String uri, final int version, final @NotNull String text) {
+        this.uri = uri;
+        this.version = version;
+        this.text = text;
+    }
+
+    @NotNull
+    public String getUri() {
+        return this.uri;
+    }
+
+    public int getVersion() {
+        return this.version;
+    }
+
+    @NotNull
+    public String getText() {
+        return this.text;
+    }
+
+    /**
+     * Applies the content changes of a {@code textDocument/didChange} notification.
+     *
+     * Changes without a range replace the whole document, changes with a range replace only that
+     * range. Changes are applied in order.
+     *
+     * @param newVersion the version of the document after the changes
+     * @param changes the {@code TextDocumentContentChangeEvent}s
+     *
+     * @return the changed document
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    public TextDocument edit(final int newVersion, final @NotNull List<Object> changes) {
+        String current = this.text;
+        for (final Object change : changes) {
+            if (!(change instanceof Map)) {
+                continue;
+            }
+
+            final Map<String, Object> event = (Map<String, Object>) change;
+            final String newText = Json.getString(event, "text");
+            if (newText == null) {
+                continue;
+            }
+
+            final Map<String, Object> range = Json.getObject(event, "range");
+            if (range == null) {
+                current = newText;
+                continue;
+            }
+
+            final int start = offsetOf(current, Json.getObject(range, "start"));
+            final int end = Math.max(start, offsetOf(current, Json.getObject(range, "end")));
+            current = current.substring(0, start) + newText + current.substring(end);
+        }
+
+        return new TextDocument(this.uri, newVersion, current);
+    }
+
+    /**
+     * Converts an LSP position to an offset in a string.
+     *
+     * Positions past the end of a line are clamped to the end of the line, positions past the end
+     * of the text to the end of the text.
+     *
+     * @param text the text
+     * @param position the position
+     *
+     * @return the offset in UTF-16 code units
+     */
+    public static int offsetOf(
+            final @NotNull String text,
+            final @Nullable Map<String, Object> position
+    ) {
+        final int line = Json.getInt(position, "line", 0);
+        final int character = Json.getInt(position, "character", 0);
+
+        int offset = 0;
+        for (int i = 0; i < line; ++i) {
+            final int lineEnd = lineEnd(text, offset);
+            if (lineEnd >= text.length()) {
+                return text.length();
+            }
+
+            offset = lineEnd + (text.startsWith("\r\n", lineEnd) ? 2 : 1);
+        }
+
+        return Math.min(offset + Math.max(0, character), lineEnd(text, offset));
+    }
+
+    private static int lineEnd(final @NotNull String text, final int from) {
+        for (int i = from; i < text.length(); ++i) {
+            final char c = text.charAt(i);
+            if (c == '\n' || c == '\r') {
+                return i;
+            }
+        }
+
+        return text.length();
+    }
+}
@@ -0,0 +1,69 @@
+package net.wukl.ruleoffour.lsp;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JsonRpcConnectionTest {
+    private static InputStream ascii(final String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static JsonRpcConnection connection(final InputStream in) {
+        return new JsonRpcConnection(in, new ByteArrayOutputStream());
+    }
+
+    @Test
+    public void testNegativeContentLength() {
+        final JsonRpcConnection connection = connection(ascii("Content-Length: -1\r\n\r\n{}"));
+        assertThrows(IOException.class, connection::read);
+    }
+
+    @Test
+    public void testOversizedMessageIsSkipped() throws IOException {
+        final int length = JsonRpcConnection.MAX_CONTENT_LENGTH + 1;
+        final InputStream content = new InputStream() {
+            private int remaining = length;
+
+            @Override
+            public int read() {
+                return this.remaining-- > 0 ? ' ' : -1;
+            }
+
+            @Override
+            public int read(final byte[] b, final int off, final int len) {
+                if (this.remaining <= 0) {
+                    return -1;
+                }
+
+                final int n = Math.min(len, this.remaining);
+                this.remaining -= n;
+                return n;
+            }
+        };
+
+        final JsonRpcConnection connection = connection(new SequenceInputStream(
+                new SequenceInputStream(ascii("Content-Length: " + length + "\r\n\r\n"), content),
+                ascii("Content-Length: 14\r\n\r\n{\"method\":\"x\"}")
+        ));
+
+        assertThrows(IllegalArgumentException.class, connection::read);
+        assertEquals(Json.object("method", "x"), connection.read());
+    }
+
+    @Test
+    public void testHugeContentLengthDoesNotAllocate() {
+        final JsonRpcConnection connection = connection(
+                ascii("Content-Length: " + Integer.MAX_VALUE + "\r\n\r\n{}")
+        );
+        assertThrows(IOException.class, connection::read);
+    }
+}
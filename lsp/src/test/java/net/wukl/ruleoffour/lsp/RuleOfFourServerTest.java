@@ -0,0 +1,389 @@
+package net.wukl.ruleoffour.lsp;
+
+import net.wukl.ruleoffour.engine.ConstructorGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RuleOfFourServerTest {
+    private static final String BASE = String.join("\n",
+            "package test;",
+            "",
+            "public class BaseException extends Exception {",
+            "    public BaseException() {",
+            "    }",
+            "",
+            "    public BaseException(String message) {",
+            "        super(message);",
+            "    }",
+            "",
+            "    public BaseException(Throwable cause) {",
+            "        super(cause);",
+            "    }",
+            "",
+            "    public BaseException(String message, Throwable cause) {",
+            "        super(message, cause);",
+            "    }",
+            "}",
+            ""
+    );
+
+    @TempDir
+    Path workspace;
+
+    private ScriptedClient client;
+
+    @AfterEach
+    public void shutDown() throws Exception {
+        if (this.client != null) {
+            assertEquals(0, this.client.shutDown());
+        }
+    }
+
+    @Test
+    public void testDiagnosticsAndQuickFix() throws Exception {
+        this.client = new ScriptedClient(RuleOfFourServer.DEFAULT_DEBOUNCE_MILLIS);
+        this.client.initialize(this.workspace);
+
+        final String uri = this.workspace.resolve("BadException.java").toUri().toString();
+        final String text = String.join("\n",
+                "package test;",
+                "",
+                "public class BadException extends Exception {",
+                "    public BadException() {",
+                "    }",
+                "}",
+                ""
+        );
+        this.client.open(uri, text);
+
+        final List<Object> diagnostics = this.client.awaitDiagnostics(uri, 3);
+        final Map<String, Object> first = asObject(diagnostics.get(0));
+        assertEquals(
+                "Exception class violates the Rule of Four: no (String message) constructor",
+                first.get("message")
+        );
+        assertEquals(
+                Json.object(
+                        "start", Json.object("line", 2L, "character", 13L),
+                        "end", Json.object("line", 2L, "character", 25L)
+                ),
+                first.get("range")
+        );
+
+        final Object result = this.client.request("textDocument/codeAction", Json.object(
+                "textDocument", Json.object("uri", uri),
+                "range", Json.object(
+                        "start", Json.object("line", 2, "character", 15),
+                        "end", Json.object("line", 2, "character", 15)
+                ),
+                "context", Json.object("diagnostics", diagnostics)
+        ));
+
+        final List<?> actions = (List<?>) result;
+        assertEquals(1, actions.size());
+        final Map<String, Object> action = asObject(actions.get(0));
+        assertEquals(ConstructorGenerator.TITLE, action.get("title"));
+        assertEquals("quickfix", action.get("kind"));
+        assertEquals(diagnostics, action.get("diagnostics"));
+
+        final Map<String, Object> edit = Json.getObject(action, "edit");
+        final List<Object> edits = Json.getArray(Json.getObject(edit, "changes"), uri);
+        assertNotNull(edits);
+        assertEquals(1, edits.size());
+
+        final String fixed = applyEdit(text, asObject(edits.get(0)));
+        assertEquals(String.join("\n",
+                "package test;",
+                "",
+                "public class BadException extends Exception {",
+                "    /**",
+                "     * Creates a new bad exception.",
+                "     *",
+                "     * @param message the message explaining what caused the exception",
+                "     */",
+                "    public BadException(final String message) {",
+                "        super(message);",
+                "    }",
+                "",
+                "    /**",
+                "     * Creates a new bad exception.",
+                "     *",
+                "     * @param cause the exception that caused this exception",
+                "     */",
+                "    public BadException(final Throwable cause) {",
+                "        super(cause);",
+                "    }",
+                "",
+                "    /**",
+                "     * Creates a new bad exception.",
+                "     *",
+                "     * @param message the message explaining what caused the exception",
+                "     * @param cause the exception that caused this exception",
+                "     */",
+                "    public BadException(final String message, final Throwable cause) {",
+                "        super(message, cause);",
+                "    }",
+                "",
+                "    public BadException() {",
+                "    }",
+                "}",
+                ""
+        ), fixed);
+
+        this.client.change(uri, 2, Json.object("text", fixed));
+        assertEquals(Collections.emptyList(), this.client.awaitDiagnostics(uri, 0));
+    }
+
+    @Test
+    public void testDependentsAreReanalysed() throws Exception {
+        final Path basePath = this.workspace.resolve("BaseException.java");
+        Files.write(basePath, BASE.getBytes(StandardCharsets.UTF_8));
+
+        this.client = new ScriptedClient(RuleOfFourServer.DEFAULT_DEBOUNCE_MILLIS);
+        this.client.initialize(this.workspace);
+
+        final String fooUri = this.workspace.resolve("FooException.java").toUri().toString();
+        this.client.open(fooUri, String.join("\n",
+                "package test;",
+                "",
+                "public class FooException extends BaseException {",
+                "}",
+                ""
+        ));
+        this.client.awaitDiagnostics(fooUri, 4);
+
+        // Stop BaseException from being an exception by removing "extends Exception".
+        final String baseUri = basePath.toUri().toString();
+        this.client.open(baseUri, BASE);
+        this.client.change(baseUri, 2, Json.object(
+                "range", Json.object(
+                        "start", Json.object("line", 2, "character", 26),
+                        "end", Json.object("line", 2, "character", 44)
+                ),
+                "text", ""
+        ));
+        this.client.awaitDiagnostics(fooUri, 0);
+
+        // Closing the document reverts to the file on disk.
+        this.client.notify("textDocument/didClose", Json.object(
+                "textDocument", Json.object("uri", baseUri)
+        ));
+        this.client.awaitDiagnostics(fooUri, 4);
+    }
+
+    @Test
+    public void testRapidChangesAreDebounced() throws Exception {
+        this.client = new ScriptedClient(250);
+        this.client.initialize(this.workspace);
+
+        final String uri = this.workspace.resolve("QuickException.java").toUri().toString();
+        this.client.open(uri, "class QuickException extends Exception {}\n");
+        this.client.awaitDiagnostics(uri, 4);
+
+        for (int version = 2; version <= 5; ++version) {
+            this.client.change(uri, version, Json.object(
+                    "range", Json.object(
+                            "start", Json.object("line", 0, "character", 40),
+                            "end", Json.object("line", 0, "character", 40)
+                    ),
+                    "text", version == 5 ? "QuickException(){}" : " "
+            ));
+        }
+
+        final Map<String, Object> published = this.client.awaitPublish(uri);
+        assertEquals(5L, published.get("version"));
+        assertEquals(3, Json.getArray(published, "diagnostics").size());
+    }
+
+    @Test
+    public void testRepeatedInitializeIsRejected() throws Exception {
+        this.client = new ScriptedClient(RuleOfFourServer.DEFAULT_DEBOUNCE_MILLIS);
+        this.client.initialize(this.workspace);
+
+        final Map<String, Object> error = this.client.requestError("initialize", Json.object(
+                "processId", null,
+                "rootUri", this.workspace.toUri().toString(),
+                "capabilities", Json.object()
+        ));
+        assertEquals(-32600L, error.get("code"));
+    }
+
+    private static String applyEdit(final String text, final Map<String, Object> edit) {
+        final Map<String, Object> range = Json.getObject(edit, "range");
+        final int start = TextDocument.offsetOf(text, Json.getObject(range, "start"));
+        final int end = TextDocument.offsetOf(text, Json.getObject(range, "end"));
+        return text.substring(0, start) + Json.getString(edit, "newText") + text.substring(end);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asObject(final Object value) {
+        assertTrue(value instanceof Map, "Expected an object: " + value);
+        return (Map<String, Object>) value;
+    }
+
+    /**
+     * Talks to a server over piped streams the way an editor would over standard input/output.
+     */
+    private static final class ScriptedClient {
+        private final PipedOutputStream toServer = new PipedOutputStream();
+        private final PipedInputStream fromServer = new PipedInputStream(1 << 16);
+        private final JsonRpcConnection connection;
+        private final ExecutorService threads = Executors.newFixedThreadPool(2);
+        private final Future<Integer> status;
+        private final BlockingQueue<Map<String, Object>> received = new LinkedBlockingQueue<>();
+        private final List<Map<String, Object>> notifications = new ArrayList<>();
+        private int nextId = 1;
+
+        private ScriptedClient(final long debounceMillis) throws IOException {
+            final RuleOfFourServer server = new RuleOfFourServer(
+                    new PipedInputStream(this.toServer, 1 << 16),
+                    new PipedOutputStream(this.fromServer),
+                    debounceMillis
+            );
+            this.connection = new JsonRpcConnection(this.fromServer, this.toServer);
+
+            this.status = this.threads.submit(server::run);
+            this.threads.execute(() -> {
+                try {
+                    Map<String, Object> message;
+                    while ((message = this.connection.read()) != null) {
+                        this.received.add(message);
+                    }
+                } catch (final IOException ex) {
+                    // The server went away.
+                }
+            });
+        }
+
+        private void initialize(final Path root) throws Exception {
+            final Object result = this.request("initialize", Json.object(
+                    "processId", null,
+                    "rootUri", root.toUri().toString(),
+                    "capabilities", Json.object()
+            ));
+            assertNotNull(Json.getObject(asObject(result), "capabilities"));
+            this.notify("initialized", Json.object());
+        }
+
+        private void open(final String uri, final String text) throws IOException {
+            this.notify("textDocument/didOpen", Json.object(
+                    "textDocument", Json.object(
+                            "uri", uri,
+                            "languageId", "java",
+                            "version", 1,
+                            "text", text
+                    )
+            ));
+        }
+
+        private void change(final String uri, final int version, final Map<String, Object> change)
+                throws IOException {
+            this.notify("textDocument/didChange", Json.object(
+                    "textDocument", Json.object("uri", uri, "version", version),
+                    "contentChanges", Collections.singletonList(change)
+            ));
+        }
+
+        private Object request(final String method, final Object params) throws Exception {
+            final Map<String, Object> response = this.send(method, params);
+            assertTrue(response.containsKey("result"), "Request failed: " + response);
+            return response.get("result");
+        }
+
+        private Map<String, Object> requestError(final String method, final Object params)
+                throws Exception {
+            final Map<String, Object> response = this.send(method, params);
+            final Map<String, Object> error = Json.getObject(response, "error");
+            assertNotNull(error, "Request did not fail: " + response);
+            return error;
+        }
+
+        private Map<String, Object> send(final String method, final Object params)
+                throws Exception {
+            final long id = this.nextId++;
+            this.connection.send(Json.object(
+                    "jsonrpc", "2.0", "id", id, "method", method, "params", params
+            ));
+
+            while (true) {
+                final Map<String, Object> message = this.next();
+                if (Long.valueOf(id).equals(message.get("id"))) {
+                    return message;
+                }
+
+                this.notifications.add(message);
+            }
+        }
+
+        private void notify(final String method, final Object params) throws IOException {
+            this.connection.send(Json.object("jsonrpc", "2.0", "method", method, "params", params));
+        }
+
+        /**
+         * Waits for the diagnostics of a document to reach a number, skipping earlier publications.
+         */
+        private List<Object> awaitDiagnostics(final String uri, final int count) throws Exception {
+            while (true) {
+                final Map<String, Object> published = this.awaitPublish(uri);
+                final List<Object> diagnostics = Json.getArray(published, "diagnostics");
+                if (diagnostics != null && diagnostics.size() == count) {
+                    return diagnostics;
+                }
+            }
+        }
+
+        private Map<String, Object> awaitPublish(final String uri) throws Exception {
+            while (true) {
+                final Map<String, Object> message = this.notifications.isEmpty()
+                        ? this.next()
+                        : this.notifications.remove(0);
+
+                final Map<String, Object> params = Json.getObject(message, "params");
+                if ("textDocument/publishDiagnostics".equals(message.get("method"))
+                        && uri.equals(Json.getString(params, "uri"))) {
+                    return params;
+                }
+            }
+        }
+
+        private Map<String, Object> next() throws InterruptedException {
+            final Map<String, Object> message = this.received.poll(10, TimeUnit.SECONDS);
+            assertNotNull(message, "Timed out waiting for the server");
+            return message;
+        }
+
+        private int shutDown() throws Exception {
+            this.request("shutdown", null);
+            this.notify("exit", null);
+
+            try {
+                return this.status.get(10, TimeUnit.SECONDS);
+            } finally {
+                this.toServer.close();
+                this.threads.shutdownNow();
+            }
+        }
+    }
+}
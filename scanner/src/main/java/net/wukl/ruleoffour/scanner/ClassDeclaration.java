@@ -0,0 +1,166 @@
+package net.wukl.ruleoffour.scanner;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A type declaration as seen by the {@link SourceScanner}.
+ *
+ * Only the parts the Rule of Four cares about are kept: the name, the {@code extends} clause and
+ * the parameter types of the constructors, all as they are written in the source.
+ */
+public final class ClassDeclaration {
+    /**
+     * The kinds of type declarations.
+     */
+    public enum Kind {
+        CLASS,
+        INTERFACE,
+        ENUM,
+        RECORD,
+        ANNOTATION
+    }
+
+    private final @NotNull SourceFile file;
+    private final @Nullable ClassDeclaration outer;
+    private final @NotNull Kind kind;
+    private final @NotNull String name;
+    private final @NotNull String qualifiedName;
+    private final boolean local;
+    private final int line;
+    private int nameOffset = -1;
+    private int bodyOffset = -1;
+    private @Nullable String superclass;
+    private final @NotNull List<String[]> constructors = new ArrayList<>();
+
+    /**
+     * Creates a new class declaration.
+     *
+     * @param file the file the class is declared in, with its package already known
+     * @param outer the class lexically enclosing this class, if any
+     * @param kind the kind of the declaration
+     * @param name the simple name of the class
+     * @param local whether the class is declared in a block rather than as a member
+     * @param line the line the name of the class is on
+     */
+    public ClassDeclaration(
+            final @NotNull SourceFile file,
+            final @Nullable ClassDeclaration outer,
+            final @NotNull Kind kind,
+            final @NotNull String name,
+            final boolean local,
+            final int line
+    ) {
+        this.file = file;
+        this.outer = outer;
+        this.kind = kind;
+        this.name = name;
+        this.local = local;
+        this.line = line;
+
+        if (outer != null) {
+            this.qualifiedName = outer.getQualifiedName() + "." + name;
+        } else {
+            final String pkg = file.getPackageName();
+            this.qualifiedName = pkg.isEmpty() ? name : pkg + "." + name;
+        }
+    }
+
+    @NotNull
+    public SourceFile getFile() {
+        return this.file;
+    }
+
+    @Nullable
+    public ClassDeclaration getOuter() {
+        return this.outer;
+    }
+
+    @NotNull
+    public Kind getKind() {
+        return this.kind;
+    }
+
+    @NotNull
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns whether the class is a local class, i.e. declared inside a method or initializer.
+     *
+     * Local classes cannot be referred to from other files and are therefore not indexed.
+     *
+     * @return {@code true} if the class is local, {@code false} otherwise
+     */
+    public boolean isLocal() {
+        return this.local;
+    }
+
+    public int getLine() {
+        return this.line;
+    }
+
+    /**
+     * Returns where the name of the class starts in the scanned source.
+     *
+     * @return the offset of the name in bytes, or {@code -1} if unknown
+     */
+    public int getNameOffset() {
+        return this.nameOffset;
+    }
+
+    void setNameOffset(final int nameOffset) {
+        this.nameOffset = nameOffset;
+    }
+
+    /**
+     * Returns where the body of the class starts in the scanned source.
+     *
+     * @return the offset just past the opening brace in bytes, or {@code -1} if unknown
+     */
+    public int getBodyOffset() {
+        return this.bodyOffset;
+    }
+
+    void setBodyOffset(final int bodyOffset) {
+        this.bodyOffset = bodyOffset;
+    }
+
+    /**
+     * Returns the canonical name of the class.
+     *
+     * @return the name, qualified by the enclosing classes and the package
+     */
+    @NotNull
+    public String getQualifiedName() {
+        return this.qualifiedName;
+    }
+
+    /**
+     * Returns the superclass as written in the {@code extends} clause.
+     *
+     * @return the superclass name, or {@code null} if the class does not extend anything
+     */
+    @Nullable
+    public String getSuperclass() {
+        return this.superclass;
+    }
+
+    void setSuperclass(final @Nullable String superclass) {
+        this.superclass = superclass;
+    }
+
+    /**
+     * Returns the declared constructors.
+     *
+     * @return a list containing the parameter types of every constructor, as written
+     */
+    @NotNull
+    public List<String[]> getConstructors() {
+        return this.constructors;
+    }
+}
@@ -0,0 +1,113 @@
+package net.wukl.ruleoffour.scanner;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves names outside the scanned tree by loading (but not initializing) classes from the JDK
+ * and a user-supplied classpath.
+ *
+ * The fallback keeps the classpath archives open until it is closed.
+ */
+public final class ClasspathFallback implements ResolutionFallback, Closeable {
+    /**
+     * Cache marker for names that do not resolve to a class.
+     */
+    private static final Class<?> MISSING = Void.class;
+
+    private final @NotNull URLClassLoader loader;
+    private final @NotNull Map<String, Class<?>> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new classpath fallback.
+     *
+     * @param classpath the directories and archives to load library classes from
+     *
+     * @throws MalformedURLException if a classpath entry cannot be converted to a URL
+     */
+    public ClasspathFallback(final @NotNull List<Path> classpath) throws MalformedURLException {
+        final URL[] urls = new URL[classpath.size()];
+        for (int i = 0; i < urls.length; ++i) {
+            urls[i] = classpath.get(i).toUri().toURL();
+        }
+
+        // No parent but the bootstrap loader: the scanner's own classes must not leak in.
+        this.loader = new URLClassLoader(urls, null);
+    }
+
+    /**
+     * Releases the classpath archives.
+     *
+     * @throws IOException if an archive could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        this.loader.close();
+    }
+
+    @Nullable
+    @Override
+    public String resolve(final @NotNull List<String> candidates) {
+        String found = null;
+        for (final String candidate : candidates) {
+            if (this.load(candidate) != null) {
+                if (found != null) {
+                    return null;
+                }
+
+                found = candidate;
+            }
+        }
+
+        return found;
+    }
+
+    @Nullable
+    @Override
+    public String superclassOf(final @NotNull String qualifiedName) {
+        final Class<?> type = this.load(qualifiedName);
+        if (type == null || type.getSuperclass() == null) {
+            return null;
+        }
+
+        final Class<?> superclass = type.getSuperclass();
+        final String canonicalName = superclass.getCanonicalName();
+        return canonicalName != null ? canonicalName : superclass.getName();
+    }
+
+    @Nullable
+    private Class<?> load(final @NotNull String qualifiedName) {
+        final Class<?> type = this.cache.computeIfAbsent(qualifiedName, this::tryLoad);
+        return type == MISSING ? null : type;
+    }
+
+    @NotNull
+    private Class<?> tryLoad(final @NotNull String qualifiedName) {
+        // Canonical names of nested classes use dots where binary names use dollars; try every
+        // split from the innermost outwards.
+        String binaryName = qualifiedName;
+        while (true) {
+            try {
+                return Class.forName(binaryName, false, this.loader);
+            } catch (final ClassNotFoundException | LinkageError ex) {
+                final int lastDot = binaryName.lastIndexOf('.');
+                if (lastDot < 0) {
+                    return MISSING;
+                }
+
+                binaryName = binaryName.substring(0, lastDot)
+                        + '$' + binaryName.substring(lastDot + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package net.wukl.ruleoffour.scanner;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Checks entire source trees for Rule of Four violations using only the tokenizer.
+ *
+ * Scanning happens in two phases: every file is tokenized independently and in parallel, after
+ * which the declarations of all files are combined into a {@link TypeIndex} to resolve the
+ * superclass graph and check the constructors. The phases can also run in separate processes:
+ * workers each {@link #parse} a {@link #shard} of the tree and write a {@link PartialResult}, and a
+ * final step {@link #check}s the merged declarations.
+ */
+public final class FastScanner {
+    private final boolean exceptionAsCause;
+    private final @NotNull ResolutionFallback fallback;
+    private final int threads;
+
+    /**
+     * Creates a new scanner.
+     *
+     * @param exceptionAsCause iff {@code true}, expect {@code Exception} instead of
+     *                         {@code Throwable} as the type of the cause
+     * @param fallback the fallback for names the tree cannot resolve
+     * @param threads the number of threads to scan with
+     */
+    public FastScanner(
+            final boolean exceptionAsCause,
+            final @NotNull ResolutionFallback fallback,
+            final int threads
+    ) {
+        this.exceptionAsCause = exceptionAsCause;
+        this.fallback = fallback;
+        this.threads = threads;
+    }
+
+    /**
+     * Collects all Java source files below the given roots.
+     *
+     * @param roots the files and directories to search
+     *
+     * @return the source files, sorted by path
+     *
+     * @throws IOException if a directory could not be walked
+     */
+    @NotNull
+    public static List<Path> collectSources(final @NotNull List<Path> roots) throws IOException {
+        final List<Path> sources = new ArrayList<>();
+        for (final Path root : roots) {
+            try (Stream<Path> walk = Files.walk(root)) {
+                walk.filter(p -> Files.isRegularFile(p) && p.toString().endsWith(".java"))
+                        .forEach(sources::add);
+            }
+        }
+
+        Collections.sort(sources);
+        return sources;
+    }
+
+    /**
+     * Selects the files belonging to a shard.
+     *
+     * Files are assigned by a hash of their path, so every worker given the same file list and
+     * shard count picks a disjoint slice, and adding a file does not move any other file.
+     *
+     * @param sources all source files
+     * @param index the zero-based index of the shard
+     * @param count the total number of shards
+     *
+     * @return the source files of the shard
+     */
+    @NotNull
+    public static List<Path> shard(
+            final @NotNull List<Path> sources,
+            final int index,
+            final int count
+    ) {
+        if (count < 1 || index < 0 || index >= count) {
+            throw new IllegalArgumentException("Invalid shard " + index + " of " + count);
+        }
+
+        final List<Path> shard = new ArrayList<>();
+        for (final Path source : sources) {
+            final String key = source.toString().replace(File.separatorChar, '/');
+            if (Math.floorMod(key.hashCode(), count) == index) {
+                shard.add(source);
+            }
+        }
+
+        return shard;
+    }
+
+    /**
+     * Scans and checks a set of source files.
+     *
+     * @param sources the source files
+     *
+     * @return the outcome of the scan
+     *
+     * @throws IOException if a file could not be read
+     */
+    @NotNull
+    public ScanResult scan(final @NotNull List<Path> sources) throws IOException {
+        return this.check(this.parse(sources));
+    }
+
+    /**
+     * Extracts the declarations from a set of source files, without checking them.
+     *
+     * @param sources the source files
+     *
+     * @return the declarations of every file, in the order of the sources
+     *
+     * @throws IOException if a file could not be read
+     */
+    @NotNull
+    public List<SourceFile> parse(final @NotNull List<Path> sources) throws IOException {
+        return this.inPool(() -> sources.parallelStream()
+                .map(FastScanner::scanUnchecked)
+                .collect(Collectors.toList())
+        );
+    }
+
+    /**
+     * Checks previously extracted declarations.
+     *
+     * All classes the declarations refer to should be among the files for the superclass graph
+     * to be resolved within the tree.
+     *
+     * @param files the declarations of every file in the tree
+     *
+     * @return the outcome of the scan
+     *
+     * @throws IOException if the check was interrupted
+     */
+    @NotNull
+    public ScanResult check(final @NotNull List<SourceFile> files) throws IOException {
+        final TypeIndex index = new TypeIndex(files, this.fallback);
+        final RuleOfFourChecker checker = new RuleOfFourChecker(index, this.exceptionAsCause);
+
+        final List<Violation> violations = this.inPool(() -> files.parallelStream()
+                .flatMap(f -> f.getClasses().stream())
+                .flatMap(c -> checker.check(c).stream())
+                .collect(Collectors.toList())
+        );
+
+        return new ScanResult(files, index, violations);
+    }
+
+    @NotNull
+    private <T> T inPool(final @NotNull Callable<T> task) throws IOException {
+        final ForkJoinPool pool = new ForkJoinPool(this.threads);
+        try {
+            return pool.submit(task).get();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while scanning", ex);
+        } catch (final ExecutionException ex) {
+            if (ex.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) ex.getCause()).getCause();
+            }
+
+            throw new IllegalStateException("Unable to scan sources", ex.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @NotNull
+    private static SourceFile scanUnchecked(final @NotNull Path path) {
+        try {
+            return SourceScanner.scan(path);
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package net.wukl.ruleoffour.scanner;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A streaming tokenizer for Java source code.
+ *
+ * The tokenizer works directly on the raw (UTF-8 or ASCII) bytes of a source file and only
+ * distinguishes identifiers and single-character symbols. Whitespace, comments, literals and
+ * numbers are skipped without producing tokens, and no objects are created unless the text of an
+ * identifier is explicitly requested through {@link #text()}.
+ */
+public final class JavaTokenizer {
+    /**
+     * The token kind signalling the end of the input.
+     */
+    public static final int EOF = 0;
+
+    /**
+     * The token kind of identifiers and keywords.
+     */
+    public static final int IDENTIFIER = 1;
+
+    /**
+     * The token kind of single-character symbols such as braces and operators.
+     */
+    public static final int SYMBOL = 2;
+
+    private final ByteBuffer buf;
+    private final int limit;
+
+    private int pos;
+    private int line = 1;
+
+    private int kind = EOF;
+    private int start;
+    private int end;
+    private int tokenLine;
+
+    /**
+     * Creates a new tokenizer.
+     *
+     * @param buf the buffer containing the source code, read from its position to its limit
+     */
+    public JavaTokenizer(final @NotNull ByteBuffer buf) {
+        this.buf = buf;
+        this.pos = buf.position();
+        this.limit = buf.limit();
+    }
+
+    /**
+     * Advances to the next token.
+     *
+     * @return the kind of the token, one of {@link #EOF}, {@link #IDENTIFIER} or {@link #SYMBOL}
+     */
+    public int next() {
+        while (this.pos < this.limit) {
+            final int c = this.buf.get(this.pos) & 0xFF;
+
+            if (c == '\n') {
+                ++this.line;
+                ++this.pos;
+            } else if (c == ' ' || c == '\t' || c == '\r' || c == '\f') {
+                ++this.pos;
+            } else if (c == '/' && this.peek(1) == '/') {
+                this.skipLineComment();
+            } else if (c == '/' && this.peek(1) == '*') {
+                this.skipBlockComment();
+            } else if (c == '"') {
+                this.skipString();
+            } else if (c == '\'') {
+                this.skipQuoted('\'');
+            } else if (c >= '0' && c <= '9') {
+                this.skipNumber();
+            } else if (isIdentifierStart(c)) {
+                this.start = this.pos;
+                this.tokenLine = this.line;
+                ++this.pos;
+                while (this.pos < this.limit && isIdentifierPart(this.buf.get(this.pos) & 0xFF)) {
+                    ++this.pos;
+                }
+                this.end = this.pos;
+                this.kind = IDENTIFIER;
+                return IDENTIFIER;
+            } else {
+                this.start = this.pos;
+                this.tokenLine = this.line;
+                this.end = ++this.pos;
+                this.kind = SYMBOL;
+                return SYMBOL;
+            }
+        }
+
+        this.start = this.limit;
+        this.end = this.limit;
+        this.tokenLine = this.line;
+        this.kind = EOF;
+        return EOF;
+    }
+
+    /**
+     * Returns the kind of the current token.
+     *
+     * @return the kind of the current token
+     */
+    public int kind() {
+        return this.kind;
+    }
+
+    /**
+     * Returns the symbol character of the current token.
+     *
+     * @return the symbol, or {@code 0} if the current token is not a symbol
+     */
+    public char symbol() {
+        return this.kind == SYMBOL ? (char) (this.buf.get(this.start) & 0xFF) : 0;
+    }
+
+    /**
+     * Checks whether the current token is the given symbol.
+     *
+     * @param symbol the symbol to check for
+     *
+     * @return {@code true} if the current token is the symbol, {@code false} otherwise
+     */
+    public boolean isSymbol(final char symbol) {
+        return this.kind == SYMBOL && (this.buf.get(this.start) & 0xFF) == symbol;
+    }
+
+    /**
+     * Checks whether the current token is an identifier with the given text.
+     *
+     * This comparison does not allocate unless the word contains non-ASCII characters.
+     *
+     * @param word the word to compare against
+     *
+     * @return {@code true} if the current token is the word, {@code false} otherwise
+     */
+    public boolean is(final @NotNull String word) {
+        if (this.kind != IDENTIFIER) {
+            return false;
+        }
+
+        final int length = this.end - this.start;
+        for (int i = 0; i < word.length(); ++i) {
+            final char c = word.charAt(i);
+            if (c >= 0x80) {
+                return this.text().equals(word);
+            }
+
+            if (i >= length || (this.buf.get(this.start + i) & 0xFF) != c) {
+                return false;
+            }
+        }
+
+        return length == word.length();
+    }
+
+    /**
+     * Checks whether the byte directly after the current token is the given character.
+     *
+     * @param c the (ASCII) character to check for
+     *
+     * @return {@code true} if the token is immediately followed by the character
+     */
+    public boolean isFollowedBy(final char c) {
+        return this.end < this.limit && (this.buf.get(this.end) & 0xFF) == c;
+    }
+
+    /**
+     * Returns the text of the current token.
+     *
+     * @return the text
+     */
+    @NotNull
+    public String text() {
+        final int length = this.end - this.start;
+        final byte[] bytes = new byte[length];
+        for (int i = 0; i < length; ++i) {
+            bytes[i] = this.buf.get(this.start + i);
+        }
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the offset of the first byte of the current token.
+     *
+     * @return the start offset
+     */
+    public int start() {
+        return this.start;
+    }
+
+    /**
+     * Returns the offset just past the last byte of the current token.
+     *
+     * @return the end offset
+     */
+    public int end() {
+        return this.end;
+    }
+
+    /**
+     * Returns the (one-based) line the current token starts on.
+     *
+     * @return the line number
+     */
+    public int line() {
+        return this.tokenLine;
+    }
+
+    private int peek(final int ahead) {
+        final int at = this.pos + ahead;
+        return at < this.limit ? this.buf.get(at) & 0xFF : -1;
+    }
+
+    private void skipLineComment() {
+        while (this.pos < this.limit && this.buf.get(this.pos) != '\n') {
+            ++this.pos;
+        }
+    }
+
+    private void skipBlockComment() {
+        this.pos += 2;
+        while (this.pos < this.limit) {
+            final int c = this.buf.get(this.pos) & 0xFF;
+            if (c == '*' && this.peek(1) == '/') {
+                this.pos += 2;
+                return;
+            }
+
+            if (c == '\n') {
+                ++this.line;
+            }
+            ++this.pos;
+        }
+    }
+
+    private void skipString() {
+        if (this.peek(1) == '"' && this.peek(2) == '"') {
+            this.skipTextBlock();
+        } else {
+            this.skipQuoted('"');
+        }
+    }
+
+    private void skipQuoted(final char quote) {
+        ++this.pos;
+        while (this.pos < this.limit) {
+            final int c = this.buf.get(this.pos) & 0xFF;
+            if (c == '\\') {
+                this.skipEscape();
+            } else if (c == quote) {
+                ++this.pos;
+                return;
+            } else if (c == '\n') {
+                // Unterminated literal; resynchronise on the next line.
+                return;
+            } else {
+                ++this.pos;
+            }
+        }
+    }
+
+    private void skipTextBlock() {
+        this.pos += 3;
+        while (this.pos < this.limit) {
+            final int c = this.buf.get(this.pos) & 0xFF;
+            if (c == '\\') {
+                this.skipEscape();
+                continue;
+            }
+
+            if (c == '"' && this.peek(1) == '"' && this.peek(2) == '"') {
+                this.pos += 3;
+                return;
+            }
+
+            if (c == '\n') {
+                ++this.line;
+            }
+            ++this.pos;
+        }
+    }
+
+    /**
+     * Skips a backslash and the character it escapes, unless that is a line break, which is left
+     * for the caller to count.
+     */
+    private void skipEscape() {
+        ++this.pos;
+        if (this.pos < this.limit && this.buf.get(this.pos) != '\n') {
+            ++this.pos;
+        }
+    }
+
+    private void skipNumber() {
+        while (this.pos < this.limit) {
+            final int c = this.buf.get(this.pos) & 0xFF;
+            if (isIdentifierPart(c) || c == '.') {
+                ++this.pos;
+            } else if ((c == '+' || c == '-') && isExponent(this.buf.get(this.pos - 1) & 0xFF)) {
+                ++this.pos;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static boolean isExponent(final int c) {
+        return c == 'e' || c == 'E' || c == 'p' || c == 'P';
+    }
+
+    private static boolean isIdentifierStart(final int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == '$' || c >= 0x80;
+    }
+
+    private static boolean isIdentifierPart(final int c) {
+        return isIdentifierStart(c) || (c >= '0' && c <= '9');
+    }
+}
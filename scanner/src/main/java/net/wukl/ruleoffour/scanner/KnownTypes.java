@@ -0,0 +1,112 @@
+package net.wukl.ruleoffour.scanner;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Built-in knowledge about the JDK types exceptions commonly extend.
+ *
+ * This lets the scanner resolve the usual superclasses by name, without loading any classes.
+ */
+final class KnownTypes {
+    /**
+     * Maps fully qualified names of JDK throwables to the names of their superclasses.
+     */
+    private static final Map<String, String> SUPERCLASSES = new HashMap<>();
+
+    /**
+     * The simple names of the {@code java.lang} types known to the scanner.
+     */
+    private static final Set<String> JAVA_LANG = new HashSet<>();
+
+    static {
+        lang("Object", null);
+        lang("String", "java.lang.Object");
+        lang("Throwable", "java.lang.Object");
+        lang("Exception", "java.lang.Throwable");
+        lang("Error", "java.lang.Throwable");
+        lang("RuntimeException", "java.lang.Exception");
+        lang("ReflectiveOperationException", "java.lang.Exception");
+        lang("ClassNotFoundException", "java.lang.ReflectiveOperationException");
+        lang("IllegalAccessException", "java.lang.ReflectiveOperationException");
+        lang("InstantiationException", "java.lang.ReflectiveOperationException");
+        lang("NoSuchFieldException", "java.lang.ReflectiveOperationException");
+        lang("NoSuchMethodException", "java.lang.ReflectiveOperationException");
+        lang("CloneNotSupportedException", "java.lang.Exception");
+        lang("InterruptedException", "java.lang.Exception");
+        lang("ArithmeticException", "java.lang.RuntimeException");
+        lang("ArrayStoreException", "java.lang.RuntimeException");
+        lang("ClassCastException", "java.lang.RuntimeException");
+        lang("IllegalArgumentException", "java.lang.RuntimeException");
+        lang("IllegalMonitorStateException", "java.lang.RuntimeException");
+        lang("IllegalStateException", "java.lang.RuntimeException");
+        lang("IndexOutOfBoundsException", "java.lang.RuntimeException");
+        lang("NegativeArraySizeException", "java.lang.RuntimeException");
+        lang("NullPointerException", "java.lang.RuntimeException");
+        lang("SecurityException", "java.lang.RuntimeException");
+        lang("UnsupportedOperationException", "java.lang.RuntimeException");
+        lang("NumberFormatException", "java.lang.IllegalArgumentException");
+        lang("ArrayIndexOutOfBoundsException", "java.lang.IndexOutOfBoundsException");
+        lang("StringIndexOutOfBoundsException", "java.lang.IndexOutOfBoundsException");
+
+        SUPERCLASSES.put("java.io.IOException", "java.lang.Exception");
+        SUPERCLASSES.put("java.io.UncheckedIOException", "java.lang.RuntimeException");
+        SUPERCLASSES.put("java.io.FileNotFoundException", "java.io.IOException");
+        SUPERCLASSES.put("java.io.EOFException", "java.io.IOException");
+        SUPERCLASSES.put("java.util.NoSuchElementException", "java.lang.RuntimeException");
+        SUPERCLASSES.put(
+                "java.util.ConcurrentModificationException", "java.lang.RuntimeException"
+        );
+        SUPERCLASSES.put("java.util.concurrent.ExecutionException", "java.lang.Exception");
+        SUPERCLASSES.put("java.util.concurrent.TimeoutException", "java.lang.Exception");
+        SUPERCLASSES.put("java.sql.SQLException", "java.lang.Exception");
+    }
+
+    private KnownTypes() {
+    }
+
+    private static void lang(final @NotNull String name, final @Nullable String superclass) {
+        JAVA_LANG.add(name);
+        SUPERCLASSES.put("java.lang." + name, superclass);
+    }
+
+    /**
+     * Checks whether a simple name is a known {@code java.lang} type.
+     *
+     * @param name the simple name
+     *
+     * @return {@code true} if the name is known to exist in {@code java.lang}
+     */
+    static boolean isJavaLang(final @NotNull String name) {
+        return JAVA_LANG.contains(name);
+    }
+
+    /**
+     * Checks whether a type is known.
+     *
+     * @param qualifiedName the fully qualified name of the type
+     *
+     * @return {@code true} if the type is known, {@code false} otherwise
+     */
+    static boolean isKnown(final @NotNull String qualifiedName) {
+        return SUPERCLASSES.containsKey(qualifiedName);
+    }
+
+    /**
+     * Returns the superclass of a known type.
+     *
+     * @param qualifiedName the fully qualified name of the type
+     *
+     * @return the fully qualified name of the superclass, or {@code null} if the type is unknown
+     *         or {@code java.lang.Object}
+     */
+    @Nullable
+    static String superclassOf(final @NotNull String qualifiedName) {
+        return SUPERCLASSES.get(qualifiedName);
+    }
+}
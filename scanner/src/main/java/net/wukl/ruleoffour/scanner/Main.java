@@ -0,0 +1,170 @@
+package net.wukl.ruleoffour.scanner;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command line entry point of the fast scanner, suitable for pre-commit hooks.
+ *
+ * Prints every violation as {@code path:line: message} and exits with status 1 if there are any.
+ */
+public final class Main {
+    private static final String USAGE = String.join("\n",
+            "Usage: ruleoffour-scan [options] <file or directory>...",
+            "       ruleoffour-scan --shard <i>/<n> --partial <out> <file or directory>...",
+            "       ruleoffour-scan --merge [options] <partial>...",
+            "",
+            "Options:",
+            "  --exception-as-cause  expect Exception instead of Throwable as the cause type",
+            "  --classpath <path>    library classes to resolve names outside the tree with",
+            "  --threads <n>         the number of threads to use (default: all processors)",
+            "  --stats               print scan statistics to standard error",
+            "  --shard <i>/<n>       only extract the declarations of shard i (zero-based) of n",
+            "  --partial <file>      where to write the declarations of the shard",
+            "  --merge               check the merged partial results of all shards"
+    );
+
+    private Main() {
+    }
+
+    /**
+     * Runs the scanner.
+     *
+     * @param args the command line arguments
+     */
+    public static void main(final String[] args) {
+        System.exit(run(args));
+    }
+
+    /**
+     * Runs the scanner without exiting the JVM.
+     *
+     * @param args the command line arguments
+     *
+     * @return the exit status: 0 if the tree complies, 1 if there are violations, 2 on errors
+     */
+    public static int run(final @NotNull String[] args) {
+        boolean exceptionAsCause = false;
+        boolean stats = false;
+        boolean merge = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int shardIndex = 0;
+        int shardCount = 0;
+        Path partial = null;
+        final List<Path> classpath = new ArrayList<>();
+        final List<Path> inputs = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < args.length; ++i) {
+                switch (args[i]) {
+                    case "--exception-as-cause":
+                        exceptionAsCause = true;
+                        break;
+                    case "--stats":
+                        stats = true;
+                        break;
+                    case "--merge":
+                        merge = true;
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--classpath":
+                        for (final String entry : args[++i].split(File.pathSeparator)) {
+                            if (!entry.isEmpty()) {
+                                classpath.add(Paths.get(entry));
+                            }
+                        }
+                        break;
+                    case "--shard":
+                        final String[] shard = args[++i].split("/", 2);
+                        shardIndex = Integer.parseInt(shard[0]);
+                        shardCount = Integer.parseInt(shard[1]);
+                        break;
+                    case "--partial":
+                        partial = Paths.get(args[++i]);
+                        break;
+                    default:
+                        if (args[i].startsWith("--")) {
+                            throw new IllegalArgumentException("Unknown option " + args[i]);
+                        }
+                        inputs.add(Paths.get(args[i]));
+                        break;
+                }
+            }
+        } catch (final IllegalArgumentException | ArrayIndexOutOfBoundsException ex) {
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        final boolean sharded = shardCount > 0 || partial != null;
+        if (inputs.isEmpty() || threads < 1 || (merge && sharded)
+                || (sharded && (partial == null || shardIndex < 0 || shardIndex >= shardCount))) {
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        try (ClasspathFallback fallback = new ClasspathFallback(classpath)) {
+            final long start = System.nanoTime();
+            final FastScanner scanner = new FastScanner(exceptionAsCause, fallback, threads);
+
+            if (sharded) {
+                final List<Path> sources = FastScanner.shard(
+                        FastScanner.collectSources(inputs), shardIndex, shardCount
+                );
+                new PartialResult(shardIndex, shardCount, scanner.parse(sources)).write(partial);
+                return 0;
+            }
+
+            final List<SourceFile> files;
+            if (merge) {
+                final List<PartialResult> partials = new ArrayList<>();
+                for (final Path input : inputs) {
+                    partials.add(PartialResult.read(input));
+                }
+                files = PartialResult.merge(partials);
+            } else {
+                files = scanner.parse(FastScanner.collectSources(inputs));
+            }
+
+            final ScanResult result = scanner.check(files);
+            for (final Violation violation : result.getViolations()) {
+                System.out.println(violation);
+            }
+
+            if (stats) {
+                printStats(result, System.nanoTime() - start);
+            }
+
+            return result.getViolations().isEmpty() ? 0 : 1;
+        } catch (final IOException ex) {
+            System.err.println("ruleoffour-scan: " + ex.getMessage());
+            return 2;
+        }
+    }
+
+    private static void printStats(final @NotNull ScanResult result, final long nanos) {
+        long lines = 0;
+        int classes = 0;
+        for (final SourceFile file : result.getFiles()) {
+            lines += file.getLineCount();
+            classes += file.getClasses().size();
+        }
+
+        final double seconds = nanos / 1e9;
+        System.err.printf(
+                "%d files, %d lines, %d classes in %.3f s (%.0f lines/s)%n",
+                result.getFiles().size(), lines, classes, seconds, lines / seconds
+        );
+        System.err.printf(
+                "%d fallback lookups, %d unresolved names%n",
+                result.getIndex().getFallbackLookups(), result.getIndex().getUnresolved().size()
+        );
+    }
+}
@@ -0,0 +1,388 @@
+package net.wukl.ruleoffour.scanner;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The declarations extracted by one shard of a distributed scan.
+ *
+ * Partial results are written in a compact binary format: a table of all distinct strings
+ * followed by the files, their imports, classes, superclass names and constructor signatures as
+ * variable-length integers referring to that table. Merging the partial results of all shards
+ * yields exactly the files a single-process scan would see.
+ */
+public final class PartialResult {
+    private static final int MAGIC = 0x52344650;
+    private static final int VERSION = 1;
+
+    private final int shardIndex;
+    private final int shardCount;
+    private final @NotNull List<SourceFile> files;
+
+    /**
+     * Creates a new partial result.
+     *
+     * @param shardIndex the zero-based index of the shard
+     * @param shardCount the total number of shards
+     * @param files the declarations of the files in the shard
+     */
+    public PartialResult(
+            final int shardIndex,
+            final int shardCount,
+            final @NotNull List<SourceFile> files
+    ) {
+        this.shardIndex = shardIndex;
+        this.shardCount = shardCount;
+        this.files = files;
+    }
+
+    public int getShardIndex() {
+        return this.shardIndex;
+    }
+
+    public int getShardCount() {
+        return this.shardCount;
+    }
+
+    @NotNull
+    public List<SourceFile> getFiles() {
+        return this.files;
+    }
+
+    /**
+     * Merges the partial results of every shard of a scan.
+     *
+     * @param partials the partial results, exactly one for each shard
+     *
+     * @return the declarations of all files, sorted by path
+     *
+     * @throws IOException if the partial results do not form one complete scan
+     */
+    @NotNull
+    public static List<SourceFile> merge(final @NotNull Collection<PartialResult> partials)
+            throws IOException {
+        if (partials.isEmpty()) {
+            throw new IOException("No partial results to merge");
+        }
+
+        final int count = partials.iterator().next().shardCount;
+        final boolean[] seen = new boolean[count];
+        final List<SourceFile> files = new ArrayList<>();
+
+        for (final PartialResult partial : partials) {
+            if (partial.shardCount != count) {
+                throw new IOException("Partial results of " + partial.shardCount + " and "
+                        + count + " shards cannot be merged");
+            }
+
+            if (seen[partial.shardIndex]) {
+                throw new IOException("Duplicate partial result for shard " + partial.shardIndex);
+            }
+
+            seen[partial.shardIndex] = true;
+            files.addAll(partial.files);
+        }
+
+        for (int i = 0; i < count; ++i) {
+            if (!seen[i]) {
+                throw new IOException("Missing partial result for shard " + i + " of " + count);
+            }
+        }
+
+        files.sort(Comparator.comparing(SourceFile::getPath));
+        return files;
+    }
+
+    /**
+     * Writes the partial result to a file.
+     *
+     * @param path the file to write to
+     *
+     * @throws IOException if the file could not be written
+     */
+    public void write(final @NotNull Path path) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            this.write(out);
+        }
+    }
+
+    /**
+     * Writes the partial result to a stream.
+     *
+     * @param stream the stream to write to; it is flushed but not closed
+     *
+     * @throws IOException if the stream could not be written to
+     */
+    public void write(final @NotNull OutputStream stream) throws IOException {
+        final Map<String, Integer> strings = new HashMap<>();
+        final List<String> table = new ArrayList<>();
+        for (final SourceFile file : this.files) {
+            intern(strings, table, file.getPath());
+            intern(strings, table, file.getPackageName());
+            for (final String imported : file.getSingleImports().values()) {
+                intern(strings, table, imported);
+            }
+            for (final String imported : file.getOnDemandImports()) {
+                intern(strings, table, imported);
+            }
+            for (final ClassDeclaration decl : file.getClasses()) {
+                intern(strings, table, decl.getName());
+                intern(strings, table, decl.getSuperclass());
+                for (final String[] params : decl.getConstructors()) {
+                    for (final String param : params) {
+                        intern(strings, table, param);
+                    }
+                }
+            }
+        }
+
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        writeVarInt(out, this.shardIndex);
+        writeVarInt(out, this.shardCount);
+
+        writeVarInt(out, table.size());
+        for (final String string : table) {
+            out.writeUTF(string);
+        }
+
+        writeVarInt(out, this.files.size());
+        for (final SourceFile file : this.files) {
+            writeVarInt(out, strings.get(file.getPath()));
+            writeVarInt(out, strings.get(file.getPackageName()));
+            writeVarInt(out, file.getLineCount());
+
+            writeVarInt(out, file.getSingleImports().size());
+            for (final String imported : file.getSingleImports().values()) {
+                writeVarInt(out, strings.get(imported));
+            }
+
+            writeVarInt(out, file.getOnDemandImports().size());
+            for (final String imported : file.getOnDemandImports()) {
+                writeVarInt(out, strings.get(imported));
+            }
+
+            final Map<ClassDeclaration, Integer> indices = new IdentityHashMap<>();
+            writeVarInt(out, file.getClasses().size());
+            for (final ClassDeclaration decl : file.getClasses()) {
+                indices.put(decl, indices.size());
+
+                // Outer classes always precede their members, so they can be referred to by index.
+                final ClassDeclaration outer = decl.getOuter();
+                writeVarInt(out, outer == null ? 0 : indices.get(outer) + 1);
+                out.writeByte(decl.getKind().ordinal());
+                out.writeBoolean(decl.isLocal());
+                writeVarInt(out, strings.get(decl.getName()));
+                writeVarInt(out, decl.getLine());
+
+                final String superclass = decl.getSuperclass();
+                writeVarInt(out, superclass == null ? 0 : strings.get(superclass) + 1);
+
+                writeVarInt(out, decl.getConstructors().size());
+                for (final String[] params : decl.getConstructors()) {
+                    writeVarInt(out, params.length);
+                    for (final String param : params) {
+                        writeVarInt(out, strings.get(param));
+                    }
+                }
+            }
+        }
+
+        out.flush();
+    }
+
+    /**
+     * Reads a partial result from a file.
+     *
+     * @param path the file to read from
+     *
+     * @return the partial result
+     *
+     * @throws IOException if the file could not be read or is not a partial result
+     */
+    @NotNull
+    public static PartialResult read(final @NotNull Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Reads a partial result from a stream.
+     *
+     * @param stream the stream to read from; it is not closed
+     *
+     * @return the partial result
+     *
+     * @throws IOException if the stream could not be read or does not contain a partial result
+     */
+    @NotNull
+    public static PartialResult read(final @NotNull InputStream stream) throws IOException {
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a Rule of Four partial result");
+        }
+
+        final int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported partial result version " + version);
+        }
+
+        final int shardIndex = readVarInt(in);
+        final int shardCount = readVarInt(in);
+        if (shardIndex >= shardCount) {
+            throw new IOException("Invalid shard " + shardIndex + " of " + shardCount);
+        }
+
+        // Counts are not trusted to size anything up front: a corrupt count must end in an
+        // IOException when the data runs out, not in an OutOfMemoryError.
+        final int tableSize = readVarInt(in);
+        final List<String> strings = new ArrayList<>(Math.min(tableSize, 1024));
+        for (int i = 0; i < tableSize; ++i) {
+            strings.add(in.readUTF());
+        }
+        final String[] table = strings.toArray(new String[0]);
+
+        final int fileCount = readVarInt(in);
+        final List<SourceFile> files = new ArrayList<>();
+        for (int f = 0; f < fileCount; ++f) {
+            final SourceFile file = new SourceFile(readString(in, table));
+            file.setPackageName(readString(in, table));
+            file.setLineCount(readVarInt(in));
+
+            final int singleImports = readVarInt(in);
+            for (int i = 0; i < singleImports; ++i) {
+                final String imported = readString(in, table);
+                final String simpleName = imported.substring(imported.lastIndexOf('.') + 1);
+                file.getSingleImports().put(simpleName, imported);
+            }
+
+            final int onDemandImports = readVarInt(in);
+            for (int i = 0; i < onDemandImports; ++i) {
+                file.getOnDemandImports().add(readString(in, table));
+            }
+
+            final int classCount = readVarInt(in);
+            for (int c = 0; c < classCount; ++c) {
+                final int outer = readIndex(in, file.getClasses().size() + 1);
+                final ClassDeclaration.Kind[] kinds = ClassDeclaration.Kind.values();
+                final int ordinal = in.readUnsignedByte();
+                if (ordinal >= kinds.length) {
+                    throw new IOException("Malformed partial result");
+                }
+                final ClassDeclaration.Kind kind = kinds[ordinal];
+                final boolean local = in.readBoolean();
+                final ClassDeclaration decl = new ClassDeclaration(
+                        file,
+                        outer == 0 ? null : file.getClasses().get(outer - 1),
+                        kind,
+                        readString(in, table),
+                        local,
+                        readVarInt(in)
+                );
+
+                final int superclass = readIndex(in, table.length + 1);
+                decl.setSuperclass(superclass == 0 ? null : table[superclass - 1]);
+
+                final int ctorCount = readVarInt(in);
+                for (int i = 0; i < ctorCount; ++i) {
+                    final int paramCount = readVarInt(in);
+                    final List<String> params = new ArrayList<>(Math.min(paramCount, 16));
+                    for (int p = 0; p < paramCount; ++p) {
+                        params.add(readString(in, table));
+                    }
+                    decl.getConstructors().add(params.toArray(new String[0]));
+                }
+
+                file.getClasses().add(decl);
+            }
+
+            files.add(file);
+        }
+
+        return new PartialResult(shardIndex, shardCount, files);
+    }
+
+    private static void intern(
+            final @NotNull Map<String, Integer> strings,
+            final @NotNull List<String> table,
+            final @Nullable String string
+    ) {
+        if (string != null && !strings.containsKey(string)) {
+            strings.put(string, table.size());
+            table.add(string);
+        }
+    }
+
+    private static void writeVarInt(final @NotNull DataOutputStream out, final int value)
+            throws IOException {
+        int rest = value;
+        while ((rest & ~0x7F) != 0) {
+            out.writeByte((rest & 0x7F) | 0x80);
+            rest >>>= 7;
+        }
+        out.writeByte(rest);
+    }
+
+    /**
+     * Reads a variable-length integer.
+     *
+     * Only non-negative values are ever written, so anything that does not fit in 31 bits is
+     * rejected.
+     */
+    private static int readVarInt(final @NotNull DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            final int b = in.readUnsignedByte();
+            if (shift == 28 && (b & ~0x07) != 0) {
+                break;
+            }
+
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed partial result");
+    }
+
+    /**
+     * Reads a variable-length integer that must be less than a bound, such as an index.
+     */
+    private static int readIndex(final @NotNull DataInputStream in, final int bound)
+            throws IOException {
+        final int index = readVarInt(in);
+        if (index >= bound) {
+            throw new IOException("Malformed partial result");
+        }
+
+        return index;
+    }
+
+    @NotNull
+    private static String readString(
+            final @NotNull DataInputStream in,
+            final @NotNull String[] table
+    ) throws IOException {
+        return table[readIndex(in, table.length)];
+    }
+}
@@ -0,0 +1,51 @@
+package net.wukl.ruleoffour.scanner;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * The slow path of name resolution, consulted when a name cannot be resolved within the scanned
+ * tree or is ambiguous.
+ */
+public interface ResolutionFallback {
+    /**
+     * A fallback that never resolves anything.
+     */
+    ResolutionFallback NONE = new ResolutionFallback() {
+        @Nullable
+        @Override
+        public String resolve(final @NotNull List<String> candidates) {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public String superclassOf(final @NotNull String qualifiedName) {
+            return null;
+        }
+    };
+
+    /**
+     * Picks the one candidate that actually exists.
+     *
+     * @param candidates the fully qualified names the simple name could refer to, in order of
+     *                   precedence
+     *
+     * @return the name of the existing type, or {@code null} if none or several exist
+     */
+    @Nullable
+    String resolve(@NotNull List<String> candidates);
+
+    /**
+     * Returns the superclass of a type outside the scanned tree.
+     *
+     * @param qualifiedName the fully qualified name of the type
+     *
+     * @return the fully qualified name of its superclass, or {@code null} if the type is unknown
+     *         or has no superclass
+     */
+    @Nullable
+    String superclassOf(@NotNull String qualifiedName);
+}
@@ -0,0 +1,118 @@
+package net.wukl.ruleoffour.scanner;
+
+import net.wukl.ruleoffour.engine.RuleOfFour;
+import net.wukl.ruleoffour.engine.Signatures;
+import net.wukl.ruleoffour.engine.TypeTable;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies the Rule of Four to scanned class declarations.
+ *
+ * Constructor parameters are resolved by name and packed into engine signatures, so the rules
+ * themselves are shared with the IDE plugin through {@link RuleOfFour}.
+ */
+public final class RuleOfFourChecker {
+    private static final String JAVA_LANG_EXCEPTION = "java.lang.Exception";
+
+    private final @NotNull TypeIndex index;
+    private final boolean exceptionAsCause;
+    private final int causeType;
+
+    /**
+     * Creates a new checker.
+     *
+     * @param index the index to resolve names with
+     * @param exceptionAsCause iff {@code true}, expect {@code Exception} instead of
+     *                         {@code Throwable} as the type of the cause
+     */
+    public RuleOfFourChecker(final @NotNull TypeIndex index, final boolean exceptionAsCause) {
+        this.index = index;
+        this.exceptionAsCause = exceptionAsCause;
+        this.causeType = TypeTable.causeType(exceptionAsCause);
+    }
+
+    /**
+     * Checks whether the Rule of Four applies to a class.
+     *
+     * @param decl the class
+     *
+     * @return {@code true} if the class is an exception named like one, {@code false} otherwise
+     */
+    public boolean isApplicable(final @NotNull ClassDeclaration decl) {
+        return decl.getKind() == ClassDeclaration.Kind.CLASS
+                && RuleOfFour.isApplicable(decl.getName(), true)
+                && this.index.isInheritor(decl, JAVA_LANG_EXCEPTION);
+    }
+
+    /**
+     * Checks a class for violations.
+     *
+     * @param decl the class
+     *
+     * @return the violations, empty if the class complies or the rule does not apply
+     */
+    @NotNull
+    public List<Violation> check(final @NotNull ClassDeclaration decl) {
+        final List<Violation> violations = new ArrayList<>(0);
+        final int missing = this.missing(decl);
+        for (int i = 0; i < RuleOfFour.CONSTRUCTOR_COUNT; ++i) {
+            if ((missing & (1 << i)) != 0) {
+                violations.add(new Violation(
+                        decl.getFile().getPath(),
+                        decl.getLine(),
+                        decl.getQualifiedName(),
+                        RuleOfFour.describeMissing(i, this.exceptionAsCause)
+                ));
+            }
+        }
+
+        return violations;
+    }
+
+    /**
+     * Determines which of the four constructors a class is missing.
+     *
+     * @param decl the class
+     *
+     * @return the mask of missing constructors as defined by {@link RuleOfFour#check}, {@code 0}
+     *         if the class complies or the rule does not apply
+     */
+    public int missing(final @NotNull ClassDeclaration decl) {
+        if (!this.isApplicable(decl)) {
+            return 0;
+        }
+
+        return RuleOfFour.check(this.pack(decl), this.causeType);
+    }
+
+    @NotNull
+    private int[] pack(final @NotNull ClassDeclaration decl) {
+        final Signatures.Builder builder = new Signatures.Builder();
+        for (final String[] params : decl.getConstructors()) {
+            builder.constructor();
+
+            // Constructors with more than two parameters never match, so don't resolve them.
+            final boolean relevant = params.length <= 2;
+            for (final String param : params) {
+                builder.parameter(relevant ? this.typeOf(decl, param) : TypeTable.OTHER);
+            }
+        }
+
+        return builder.build();
+    }
+
+    private int typeOf(final @NotNull ClassDeclaration decl, final @NotNull String written) {
+        // Only bother resolving names that could possibly refer to one of the well-known types.
+        if (!written.endsWith("String")
+                && !written.endsWith("Throwable")
+                && !written.endsWith("Exception")) {
+            return TypeTable.OTHER;
+        }
+
+        final String resolved = this.index.resolve(decl.getFile(), decl, written);
+        return resolved == null ? TypeTable.OTHER : TypeTable.wellKnown(resolved);
+    }
+}
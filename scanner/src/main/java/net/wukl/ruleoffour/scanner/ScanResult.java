@@ -0,0 +1,46 @@
+package net.wukl.ruleoffour.scanner;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * The outcome of a {@link FastScanner} run.
+ */
+public final class ScanResult {
+    private final @NotNull List<SourceFile> files;
+    private final @NotNull TypeIndex index;
+    private final @NotNull List<Violation> violations;
+
+    /**
+     * Creates a new scan result.
+     *
+     * @param files the scanned files
+     * @param index the index built from the scanned files
+     * @param violations the violations found
+     */
+    public ScanResult(
+            final @NotNull List<SourceFile> files,
+            final @NotNull TypeIndex index,
+            final @NotNull List<Violation> violations
+    ) {
+        this.files = files;
+        this.index = index;
+        this.violations = violations;
+    }
+
+    @NotNull
+    public List<SourceFile> getFiles() {
+        return this.files;
+    }
+
+    @NotNull
+    public TypeIndex getIndex() {
+        return this.index;
+    }
+
+    @NotNull
+    public List<Violation> getViolations() {
+        return this.violations;
+    }
+}
@@ -0,0 +1,91 @@
+package net.wukl.ruleoffour.scanner;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The declarations extracted from a single Java source file.
+ */
+public final class SourceFile {
+    private final @NotNull String path;
+    private @NotNull String packageName = "";
+    private final @NotNull Map<String, String> singleImports = new HashMap<>();
+    private final @NotNull List<String> onDemandImports = new ArrayList<>();
+    private final @NotNull List<ClassDeclaration> classes = new ArrayList<>();
+    private int lineCount;
+
+    /**
+     * Creates a new source file.
+     *
+     * @param path the path of the file, as given to the scanner
+     */
+    public SourceFile(final @NotNull String path) {
+        this.path = path;
+    }
+
+    @NotNull
+    public String getPath() {
+        return this.path;
+    }
+
+    /**
+     * Returns the name of the package the file belongs to.
+     *
+     * @return the package name, or the empty string for the default package
+     */
+    @NotNull
+    public String getPackageName() {
+        return this.packageName;
+    }
+
+    void setPackageName(final @NotNull String packageName) {
+        this.packageName = packageName;
+    }
+
+    /**
+     * Returns the single-type imports of the file.
+     *
+     * @return a map from simple names to the fully qualified names they import
+     */
+    @NotNull
+    public Map<String, String> getSingleImports() {
+        return this.singleImports;
+    }
+
+    /**
+     * Returns the type-import-on-demand declarations of the file.
+     *
+     * @return the names of the imported packages (or types)
+     */
+    @NotNull
+    public List<String> getOnDemandImports() {
+        return this.onDemandImports;
+    }
+
+    /**
+     * Returns all type declarations in the file, including nested and local ones.
+     *
+     * @return the declarations, in source order
+     */
+    @NotNull
+    public List<ClassDeclaration> getClasses() {
+        return this.classes;
+    }
+
+    /**
+     * Returns the number of lines in the file.
+     *
+     * @return the line count
+     */
+    public int getLineCount() {
+        return this.lineCount;
+    }
+
+    void setLineCount(final int lineCount) {
+        this.lineCount = lineCount;
+    }
+}
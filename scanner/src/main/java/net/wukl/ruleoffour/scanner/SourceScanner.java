@@ -0,0 +1,452 @@
+package net.wukl.ruleoffour.scanner;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Extracts class declarations, {@code extends} clauses and constructor parameter lists from Java
+ * source files without building a syntax tree.
+ */
+public final class SourceScanner {
+    /**
+     * Files smaller than this are read into the heap; mapping them costs more than it saves.
+     */
+    private static final long MAP_THRESHOLD = 64 * 1024;
+
+    private static final int PREV_OTHER = 0;
+    private static final int PREV_MEMBER_START = 1;
+    private static final int PREV_DOT = 2;
+
+    private final JavaTokenizer tok;
+    private final SourceFile file;
+
+    /**
+     * The stack of open braces; type bodies hold their declaration, other blocks hold {@code null}.
+     */
+    private final List<ClassDeclaration> frames = new ArrayList<>();
+
+    private int prev = PREV_MEMBER_START;
+
+    private SourceScanner(final @NotNull JavaTokenizer tok, final @NotNull SourceFile file) {
+        this.tok = tok;
+        this.file = file;
+    }
+
+    /**
+     * Scans a source file on disk.
+     *
+     * Large files are memory-mapped, small ones are read in one go.
+     *
+     * @param path the path of the file
+     *
+     * @return the declarations in the file
+     *
+     * @throws IOException if the file could not be read
+     */
+    @NotNull
+    public static SourceFile scan(final @NotNull Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final ByteBuffer buf;
+            if (size >= MAP_THRESHOLD) {
+                buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } else {
+                buf = ByteBuffer.allocate((int) size);
+                while (buf.hasRemaining() && channel.read(buf) >= 0) {
+                    // Keep reading until the buffer is full.
+                }
+                buf.flip();
+            }
+
+            return scan(path.toString(), buf);
+        }
+    }
+
+    /**
+     * Scans a buffer containing Java source code.
+     *
+     * @param path the path to report the file as
+     * @param buf the source code
+     *
+     * @return the declarations in the source code
+     */
+    @NotNull
+    public static SourceFile scan(final @NotNull String path, final @NotNull ByteBuffer buf) {
+        final SourceFile file = new SourceFile(path);
+        new SourceScanner(new JavaTokenizer(buf), file).run();
+        return file;
+    }
+
+    private void run() {
+        this.tok.next();
+
+        while (this.tok.kind() != JavaTokenizer.EOF) {
+            if (this.tok.kind() == JavaTokenizer.IDENTIFIER) {
+                this.identifier();
+            } else {
+                this.symbol();
+            }
+        }
+
+        this.file.setLineCount(this.tok.line());
+    }
+
+    private void identifier() {
+        final boolean afterDot = this.prev == PREV_DOT;
+        final boolean memberStart = this.prev == PREV_MEMBER_START;
+
+        if (this.frames.isEmpty() && this.tok.is("package")) {
+            this.advance();
+            this.file.setPackageName(this.qualifiedName());
+        } else if (this.frames.isEmpty() && this.tok.is("import")) {
+            this.importDeclaration();
+        } else if (!afterDot && this.tok.is("class")) {
+            this.typeDeclaration(ClassDeclaration.Kind.CLASS);
+        } else if (!afterDot && this.tok.is("interface")) {
+            this.typeDeclaration(ClassDeclaration.Kind.INTERFACE);
+        } else if (!afterDot && this.tok.is("enum")) {
+            this.typeDeclaration(ClassDeclaration.Kind.ENUM);
+        } else if (memberStart && this.tok.is("record")) {
+            this.typeDeclaration(ClassDeclaration.Kind.RECORD);
+        } else if (memberStart && this.isConstructorName()) {
+            this.advance();
+            if (this.tok.isSymbol('(')) {
+                this.currentType().getConstructors().add(this.parameterList());
+            } else {
+                this.prev = PREV_OTHER;
+            }
+        } else {
+            final boolean modifier = this.isModifier();
+            this.advance();
+            this.prev = modifier && memberStart ? PREV_MEMBER_START : PREV_OTHER;
+        }
+    }
+
+    private void symbol() {
+        final char c = this.tok.symbol();
+        switch (c) {
+            case '{':
+                this.frames.add(null);
+                this.advance();
+                this.prev = PREV_MEMBER_START;
+                break;
+            case '}':
+                if (!this.frames.isEmpty()) {
+                    this.frames.remove(this.frames.size() - 1);
+                }
+                this.advance();
+                this.prev = PREV_MEMBER_START;
+                break;
+            case ';':
+                this.advance();
+                this.prev = PREV_MEMBER_START;
+                break;
+            case '.':
+                this.advance();
+                this.prev = PREV_DOT;
+                break;
+            case '@':
+                final boolean memberStart = this.prev == PREV_MEMBER_START;
+                this.advance();
+                if (this.tok.is("interface")) {
+                    this.typeDeclaration(ClassDeclaration.Kind.ANNOTATION);
+                    return;
+                }
+                this.annotationRest();
+                this.prev = memberStart ? PREV_MEMBER_START : PREV_OTHER;
+                break;
+            case '<':
+                // Type parameters of a generic constructor or method.
+                final boolean genericMember = this.prev == PREV_MEMBER_START;
+                this.skipBalanced('<', '>');
+                this.prev = genericMember ? PREV_MEMBER_START : PREV_OTHER;
+                break;
+            default:
+                this.advance();
+                this.prev = PREV_OTHER;
+                break;
+        }
+    }
+
+    private boolean isModifier() {
+        return this.tok.is("public")
+                || this.tok.is("protected")
+                || this.tok.is("private")
+                || this.tok.is("static")
+                || this.tok.is("final")
+                || this.tok.is("abstract")
+                || this.tok.is("sealed")
+                || this.tok.is("strictfp");
+    }
+
+    private boolean isConstructorName() {
+        final ClassDeclaration type = this.currentType();
+        return type != null && this.tok.is(type.getName());
+    }
+
+    /**
+     * Returns the type whose body is directly around the current token.
+     *
+     * @return the type, or {@code null} if the current token is not at member level
+     */
+    @Nullable
+    private ClassDeclaration currentType() {
+        return this.frames.isEmpty() ? null : this.frames.get(this.frames.size() - 1);
+    }
+
+    @Nullable
+    private ClassDeclaration enclosingType() {
+        for (int i = this.frames.size() - 1; i >= 0; --i) {
+            if (this.frames.get(i) != null) {
+                return this.frames.get(i);
+            }
+        }
+
+        return null;
+    }
+
+    private void importDeclaration() {
+        this.advance();
+        if (this.tok.is("static")) {
+            this.skipPast(';');
+            return;
+        }
+
+        final StringBuilder name = new StringBuilder();
+        while (this.tok.kind() != JavaTokenizer.EOF && !this.tok.isSymbol(';')) {
+            if (this.tok.isSymbol('*')) {
+                // Drop the trailing dot.
+                name.setLength(Math.max(0, name.length() - 1));
+                this.file.getOnDemandImports().add(name.toString());
+                this.skipPast(';');
+                return;
+            }
+
+            name.append(this.tok.text());
+            this.advance();
+        }
+
+        this.advance();
+
+        final String imported = name.toString();
+        final int lastDot = imported.lastIndexOf('.');
+        this.file.getSingleImports().put(imported.substring(lastDot + 1), imported);
+    }
+
+    private void typeDeclaration(final @NotNull ClassDeclaration.Kind kind) {
+        final int frame = this.frames.size();
+        this.advance();
+        if (this.tok.kind() != JavaTokenizer.IDENTIFIER) {
+            this.prev = PREV_OTHER;
+            return;
+        }
+
+        final ClassDeclaration type = this.currentType();
+        final ClassDeclaration decl = new ClassDeclaration(
+                this.file,
+                this.enclosingType(),
+                kind,
+                this.tok.text(),
+                frame > 0 && type == null,
+                this.tok.line()
+        );
+        decl.setNameOffset(this.tok.start());
+
+        this.advance();
+        if (kind == ClassDeclaration.Kind.RECORD
+                && !this.tok.isSymbol('(') && !this.tok.isSymbol('<')) {
+            // A type or variable called "record" rather than a record declaration.
+            this.prev = PREV_OTHER;
+            return;
+        }
+
+        this.file.getClasses().add(decl);
+
+        while (this.tok.kind() != JavaTokenizer.EOF) {
+            if (this.tok.isSymbol('{')) {
+                decl.setBodyOffset(this.tok.end());
+                this.frames.add(decl);
+                this.advance();
+                this.prev = PREV_MEMBER_START;
+                return;
+            } else if (this.tok.isSymbol(';') || this.tok.isSymbol('}')) {
+                this.prev = PREV_OTHER;
+                return;
+            } else if (this.tok.isSymbol('<')) {
+                this.skipBalanced('<', '>');
+            } else if (this.tok.isSymbol('(')) {
+                this.skipBalanced('(', ')');
+            } else if (this.tok.is("extends") && kind == ClassDeclaration.Kind.CLASS) {
+                this.advance();
+                decl.setSuperclass(this.typeName());
+            } else {
+                this.advance();
+            }
+        }
+    }
+
+    @NotNull
+    private String[] parameterList() {
+        final List<String> params = new ArrayList<>();
+        this.advance();
+
+        while (this.tok.kind() != JavaTokenizer.EOF && !this.tok.isSymbol(')')) {
+            if (this.tok.isSymbol('@')) {
+                this.advance();
+                this.annotationRest();
+                continue;
+            }
+
+            if (this.tok.is("final")) {
+                this.advance();
+                continue;
+            }
+
+            if (this.tok.isSymbol(',')) {
+                this.advance();
+                continue;
+            }
+
+            if (this.tok.kind() != JavaTokenizer.IDENTIFIER) {
+                // Not something a parameter list can contain; give up on this list.
+                this.skipPast(')');
+                return params.toArray(new String[0]);
+            }
+
+            final StringBuilder type = new StringBuilder(this.typeName());
+            while (true) {
+                if (this.tok.isSymbol('[')) {
+                    this.advance();
+                    this.advance();
+                    type.append("[]");
+                } else if (this.tok.isSymbol('.')) {
+                    this.advance();
+                    this.advance();
+                    this.advance();
+                    type.append("...");
+                } else if (this.tok.isSymbol('@')) {
+                    this.advance();
+                    this.annotationRest();
+                } else {
+                    break;
+                }
+            }
+
+            // The parameter name, possibly followed by C-style array brackets.
+            this.advance();
+            while (this.tok.isSymbol('[')) {
+                this.advance();
+                this.advance();
+                type.append("[]");
+            }
+
+            params.add(type.toString());
+        }
+
+        this.advance();
+        this.prev = PREV_OTHER;
+        return params.toArray(new String[0]);
+    }
+
+    /**
+     * Reads a possibly qualified, possibly parameterized type name, dropping type arguments and
+     * type annotations.
+     *
+     * @return the type name
+     */
+    @NotNull
+    private String typeName() {
+        final StringBuilder name = new StringBuilder();
+
+        while (this.tok.kind() != JavaTokenizer.EOF) {
+            if (this.tok.isSymbol('@')) {
+                this.advance();
+                this.annotationRest();
+            } else if (this.tok.kind() == JavaTokenizer.IDENTIFIER) {
+                name.append(this.tok.text());
+                this.advance();
+                if (this.tok.isSymbol('<')) {
+                    this.skipBalanced('<', '>');
+                }
+
+                if (!this.tok.isSymbol('.') || this.tok.isFollowedBy('.')) {
+                    break;
+                }
+
+                name.append('.');
+                this.advance();
+            } else {
+                break;
+            }
+        }
+
+        return name.toString();
+    }
+
+    @NotNull
+    private String qualifiedName() {
+        final StringBuilder name = new StringBuilder();
+        while (this.tok.kind() == JavaTokenizer.IDENTIFIER) {
+            name.append(this.tok.text());
+            this.advance();
+            if (!this.tok.isSymbol('.')) {
+                break;
+            }
+
+            name.append('.');
+            this.advance();
+        }
+
+        return name.toString();
+    }
+
+    /**
+     * Skips the name and arguments of an annotation, the {@code @} already being consumed.
+     */
+    private void annotationRest() {
+        this.qualifiedName();
+        if (this.tok.isSymbol('(')) {
+            this.skipBalanced('(', ')');
+        }
+    }
+
+    private void skipBalanced(final char open, final char close) {
+        int depth = 0;
+        while (this.tok.kind() != JavaTokenizer.EOF) {
+            if (this.tok.isSymbol(open)) {
+                ++depth;
+            } else if (this.tok.isSymbol(close)) {
+                --depth;
+            } else if (this.tok.isSymbol(';')
+                    || (open == '<' && (this.tok.isSymbol('{') || this.tok.isSymbol('}')))) {
+                // Never run past a statement or block boundary; leave it to the caller.
+                return;
+            }
+
+            this.advance();
+            if (depth == 0) {
+                return;
+            }
+        }
+    }
+
+    private void skipPast(final char symbol) {
+        while (this.tok.kind() != JavaTokenizer.EOF && !this.tok.isSymbol(symbol)) {
+            this.advance();
+        }
+        this.advance();
+        this.prev = PREV_MEMBER_START;
+    }
+
+    private void advance() {
+        this.tok.next();
+    }
+}
@@ -0,0 +1,399 @@
+package net.wukl.ruleoffour.scanner;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A name-based index of all classes in a source tree, forming the superclass graph.
+ *
+ * Names are resolved following the Java scoping rules as far as they can be applied without type
+ * attribution: member types of enclosing classes, single-type imports, the current package and
+ * finally on-demand imports including {@code java.lang}. Only names that are not declared in the
+ * tree, or that resolve to several classes, are handed to a {@link ResolutionFallback}.
+ *
+ * After construction the index is safe to use from multiple threads. Long-running clients such as
+ * editors can keep an index and {@link #replace replace} files as they change; replacements must
+ * not run concurrently with each other or with queries.
+ */
+public final class TypeIndex {
+    /**
+     * Cache marker for superclasses that could not be resolved.
+     */
+    private static final String UNRESOLVED = "";
+
+    /**
+     * The maximum depth of a superclass chain, protecting against cycles in broken code.
+     */
+    private static final int MAX_DEPTH = 64;
+
+    private final @NotNull Map<String, ClassDeclaration> types = new ConcurrentHashMap<>();
+    private final @NotNull ResolutionFallback fallback;
+
+    private final @NotNull Map<ClassDeclaration, String> superclasses = new ConcurrentHashMap<>();
+    private final @NotNull Map<String, String> externalSuperclasses = new ConcurrentHashMap<>();
+    private final @NotNull Set<String> unresolved = ConcurrentHashMap.newKeySet();
+    private final @NotNull AtomicLong fallbackLookups = new AtomicLong();
+
+    /**
+     * Creates a new index.
+     *
+     * @param files the files making up the tree
+     * @param fallback the fallback for names the tree cannot resolve
+     */
+    public TypeIndex(
+            final @NotNull Collection<SourceFile> files,
+            final @NotNull ResolutionFallback fallback
+    ) {
+        this.fallback = fallback;
+
+        for (final SourceFile file : files) {
+            for (final ClassDeclaration decl : file.getClasses()) {
+                if (!decl.isLocal()) {
+                    this.types.put(decl.getQualifiedName(), decl);
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces the declarations of a file, invalidating everything that may depend on them.
+     *
+     * A class depends on the file if its superclass chain runs through a class declared in the
+     * file, or if its {@code extends} clause mentions a simple name the file started or stopped
+     * declaring, as such a name may now resolve differently. Names mentioning those simple names
+     * are also dropped from the cache of names that could not be resolved.
+     *
+     * @param old the previous declarations of the file, if the file was in the index
+     * @param updated the new declarations of the file, if it still exists
+     *
+     * @return the canonical names of every class whose superclass chain may have changed
+     */
+    @NotNull
+    public Set<String> replace(final @Nullable SourceFile old, final @Nullable SourceFile updated) {
+        final Set<String> oldNames = declaredNames(old);
+        final Set<String> newNames = declaredNames(updated);
+
+        final Set<String> renamed = new HashSet<>();
+        for (final String name : oldNames) {
+            if (!newNames.contains(name)) {
+                renamed.add(simpleName(name));
+            }
+        }
+        for (final String name : newNames) {
+            if (!oldNames.contains(name)) {
+                renamed.add(simpleName(name));
+            }
+        }
+
+        if (old != null) {
+            for (final ClassDeclaration decl : old.getClasses()) {
+                this.types.remove(decl.getQualifiedName(), decl);
+                this.superclasses.remove(decl);
+            }
+        }
+
+        if (updated != null) {
+            for (final ClassDeclaration decl : updated.getClasses()) {
+                if (!decl.isLocal()) {
+                    this.types.put(decl.getQualifiedName(), decl);
+                }
+            }
+        }
+
+        // Names that failed to resolve may resolve to one of the file's classes now, and names
+        // that resolved to one of them may not any more. Either way they have to be looked up
+        // again; classes mentioning them are invalidated below and re-add them if they still fail.
+        this.unresolved.removeIf(name -> mentionsAny(name, renamed));
+        this.externalSuperclasses.keySet().removeIf(name -> mentionsAny(name, renamed));
+
+        // Walk the cached part of the graph backwards; links that were never followed have
+        // nothing to invalidate.
+        final Map<String, List<ClassDeclaration>> subclasses = new HashMap<>();
+        final Deque<ClassDeclaration> stale = new ArrayDeque<>();
+        for (final Map.Entry<ClassDeclaration, String> entry : this.superclasses.entrySet()) {
+            final ClassDeclaration decl = entry.getKey();
+            if (mentionsAny(decl.getSuperclass(), renamed)) {
+                stale.add(decl);
+            } else {
+                subclasses.computeIfAbsent(entry.getValue(), k -> new ArrayList<>()).add(decl);
+            }
+        }
+
+        final Set<String> affected = new HashSet<>(oldNames);
+        affected.addAll(newNames);
+
+        final Deque<String> pending = new ArrayDeque<>(affected);
+        while (!pending.isEmpty() || !stale.isEmpty()) {
+            while (!stale.isEmpty()) {
+                final ClassDeclaration decl = stale.poll();
+                this.superclasses.remove(decl);
+                if (affected.add(decl.getQualifiedName())) {
+                    pending.add(decl.getQualifiedName());
+                }
+            }
+
+            final String name = pending.poll();
+            if (name != null) {
+                final List<ClassDeclaration> direct = subclasses.remove(name);
+                if (direct != null) {
+                    stale.addAll(direct);
+                }
+            }
+        }
+
+        return affected;
+    }
+
+    @NotNull
+    private static Set<String> declaredNames(final @Nullable SourceFile file) {
+        final Set<String> names = new HashSet<>();
+        if (file != null) {
+            for (final ClassDeclaration decl : file.getClasses()) {
+                if (!decl.isLocal()) {
+                    names.add(decl.getQualifiedName());
+                }
+            }
+        }
+
+        return names;
+    }
+
+    @NotNull
+    private static String simpleName(final @NotNull String qualifiedName) {
+        return qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+    }
+
+    private static boolean mentionsAny(
+            final @Nullable String written,
+            final @NotNull Set<String> simpleNames
+    ) {
+        if (written == null || simpleNames.isEmpty()) {
+            return false;
+        }
+
+        for (final String part : written.split("\\.")) {
+            if (simpleNames.contains(part)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Looks up a class in the tree.
+     *
+     * @param qualifiedName the canonical name of the class
+     *
+     * @return the class, or {@code null} if the tree does not declare it
+     */
+    @Nullable
+    public ClassDeclaration get(final @NotNull String qualifiedName) {
+        return this.types.get(qualifiedName);
+    }
+
+    /**
+     * Resolves a type name as written in a source file.
+     *
+     * @param file the file the name appears in
+     * @param scope the innermost class whose members are in scope, if any
+     * @param name the possibly qualified name
+     *
+     * @return the canonical name of the type, or {@code null} if it could not be resolved
+     */
+    @Nullable
+    public String resolve(
+            final @NotNull SourceFile file,
+            final @Nullable ClassDeclaration scope,
+            final @NotNull String name
+    ) {
+        final int firstDot = name.indexOf('.');
+        if (firstDot >= 0) {
+            return this.resolveQualified(file, scope, name, firstDot);
+        }
+
+        for (ClassDeclaration s = scope; s != null; s = s.getOuter()) {
+            final String member = s.getQualifiedName() + "." + name;
+            if (this.types.containsKey(member)) {
+                return member;
+            }
+        }
+
+        final String imported = file.getSingleImports().get(name);
+        if (imported != null) {
+            return imported;
+        }
+
+        final String pkg = file.getPackageName();
+        final String samePackage = pkg.isEmpty() ? name : pkg + "." + name;
+        if (this.types.containsKey(samePackage)) {
+            return samePackage;
+        }
+
+        final List<String> candidates = new ArrayList<>(1);
+        for (final String onDemand : file.getOnDemandImports()) {
+            final String candidate = onDemand + "." + name;
+            if (this.types.containsKey(candidate)) {
+                candidates.add(candidate);
+            }
+        }
+
+        final String javaLang = "java.lang." + name;
+        if (KnownTypes.isJavaLang(name) && !candidates.contains(javaLang)) {
+            candidates.add(javaLang);
+        }
+
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+
+        // Either declared outside the tree or ambiguous: take the slow path.
+        this.fallbackLookups.incrementAndGet();
+
+        if (candidates.isEmpty()) {
+            final String external = this.fallback.resolve(Collections.singletonList(samePackage));
+            if (external != null) {
+                return external;
+            }
+
+            for (final String onDemand : file.getOnDemandImports()) {
+                candidates.add(onDemand + "." + name);
+            }
+            candidates.add(javaLang);
+        }
+
+        return this.fallback.resolve(candidates);
+    }
+
+    @Nullable
+    private String resolveQualified(
+            final @NotNull SourceFile file,
+            final @Nullable ClassDeclaration scope,
+            final @NotNull String name,
+            final int firstDot
+    ) {
+        if (this.types.containsKey(name)) {
+            return name;
+        }
+
+        final String first = name.substring(0, firstDot);
+        if (!Character.isUpperCase(first.charAt(0))) {
+            // By convention a package name; assume the name is fully qualified.
+            return name;
+        }
+
+        final String outer = this.resolve(file, scope, first);
+        return outer != null ? outer + name.substring(firstDot) : name;
+    }
+
+    /**
+     * Returns the superclass of a class in the tree.
+     *
+     * @param decl the class
+     *
+     * @return the canonical name of the superclass, or {@code null} if it could not be resolved
+     *         or the declaration is not a class
+     */
+    @Nullable
+    public String superclassOf(final @NotNull ClassDeclaration decl) {
+        if (decl.getKind() != ClassDeclaration.Kind.CLASS) {
+            return null;
+        }
+
+        final String cached = this.superclasses.computeIfAbsent(decl, d -> {
+            final String written = d.getSuperclass();
+            if (written == null) {
+                return "java.lang.Object";
+            }
+
+            final String resolved = this.resolve(d.getFile(), d.getOuter(), written);
+            if (resolved == null) {
+                this.unresolved.add(written);
+                return UNRESOLVED;
+            }
+
+            return resolved;
+        });
+
+        return cached.equals(UNRESOLVED) ? null : cached;
+    }
+
+    /**
+     * Checks whether a class (indirectly) extends another class.
+     *
+     * Like {@code InheritanceUtil.isInheritor}, a class is not considered to inherit from itself.
+     *
+     * @param decl the class to check
+     * @param base the canonical name of the supposed base class
+     *
+     * @return {@code true} if the class is known to inherit from the base class
+     */
+    public boolean isInheritor(final @NotNull ClassDeclaration decl, final @NotNull String base) {
+        String current = this.superclassOf(decl);
+
+        for (int depth = 0; current != null && depth < MAX_DEPTH; ++depth) {
+            if (current.equals(base)) {
+                return true;
+            }
+
+            final ClassDeclaration next = this.types.get(current);
+            if (next != null) {
+                current = this.superclassOf(next);
+            } else if (KnownTypes.isKnown(current)) {
+                current = KnownTypes.superclassOf(current);
+            } else {
+                current = this.externalSuperclassOf(current);
+            }
+        }
+
+        return false;
+    }
+
+    @Nullable
+    private String externalSuperclassOf(final @NotNull String qualifiedName) {
+        final String cached = this.externalSuperclasses.computeIfAbsent(qualifiedName, name -> {
+            this.fallbackLookups.incrementAndGet();
+            final String superclass = this.fallback.superclassOf(name);
+            if (superclass == null) {
+                this.unresolved.add(name);
+                return UNRESOLVED;
+            }
+
+            return superclass;
+        });
+
+        return cached.equals(UNRESOLVED) ? null : cached;
+    }
+
+    /**
+     * Returns the names that could not be resolved, neither in the tree nor by the fallback.
+     *
+     * @return the unresolved names
+     */
+    @NotNull
+    public Set<String> getUnresolved() {
+        return Collections.unmodifiableSet(this.unresolved);
+    }
+
+    /**
+     * Returns how often the fallback had to be consulted.
+     *
+     * @return the number of fallback lookups
+     */
+    public long getFallbackLookups() {
+        return this.fallbackLookups.get();
+    }
+}
@@ -0,0 +1,62 @@
+package net.wukl.ruleoffour.scanner;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A Rule of Four violation found by the scanner.
+ */
+public final class Violation {
+    private final @NotNull String path;
+    private final int line;
+    private final @NotNull String className;
+    private final @NotNull String message;
+
+    /**
+     * Creates a new violation.
+     *
+     * @param path the path of the file containing the offending class
+     * @param line the line the name of the class is on
+     * @param className the canonical name of the class
+     * @param message the description of the violation
+     */
+    public Violation(
+            final @NotNull String path,
+            final int line,
+            final @NotNull String className,
+            final @NotNull String message
+    ) {
+        this.path = path;
+        this.line = line;
+        this.className = className;
+        this.message = message;
+    }
+
+    @NotNull
+    public String getPath() {
+        return this.path;
+    }
+
+    public int getLine() {
+        return this.line;
+    }
+
+    @NotNull
+    public String getClassName() {
+        return this.className;
+    }
+
+    @NotNull
+    public String getMessage() {
+        return this.message;
+    }
+
+    /**
+     * Formats the violation the way compilers report problems.
+     *
+     * @return the path, line and message of the violation
+     */
+    @Override
+    public String toString() {
+        return this.path + ":" + this.line + ": " + this.message;
+    }
+}
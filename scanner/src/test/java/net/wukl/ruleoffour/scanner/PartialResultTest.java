@@ -0,0 +1,170 @@
+package net.wukl.ruleoffour.scanner;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PartialResultTest {
+    private static SourceFile file(final String path, final String source) {
+        return SourceScanner.scan(path, ByteBuffer.wrap(source.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static PartialResult roundTrip(final PartialResult partial) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        partial.write(out);
+        return PartialResult.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        final SourceFile original = file("p/Outer.java", String.join("\n",
+                "package p;",
+                "import java.util.List;",
+                "import q.*;",
+                "class Outer {",
+                "    static class InnerException extends Exception {",
+                "        InnerException() {}",
+                "        InnerException(String message, List<Throwable>... causes) {}",
+                "    }",
+                "}"
+        ));
+
+        final PartialResult read = roundTrip(
+                new PartialResult(1, 3, Collections.singletonList(original))
+        );
+        assertEquals(1, read.getShardIndex());
+        assertEquals(3, read.getShardCount());
+
+        final SourceFile file = read.getFiles().get(0);
+        assertEquals("p/Outer.java", file.getPath());
+        assertEquals("p", file.getPackageName());
+        assertEquals(9, file.getLineCount());
+        assertEquals(original.getSingleImports(), file.getSingleImports());
+        assertEquals(original.getOnDemandImports(), file.getOnDemandImports());
+
+        final ClassDeclaration outer = file.getClasses().get(0);
+        assertNull(outer.getSuperclass());
+
+        final ClassDeclaration inner = file.getClasses().get(1);
+        assertSame(outer, inner.getOuter());
+        assertEquals("p.Outer.InnerException", inner.getQualifiedName());
+        assertEquals("Exception", inner.getSuperclass());
+        assertEquals(5, inner.getLine());
+        assertEquals(2, inner.getConstructors().size());
+        assertArrayEquals(new String[0], inner.getConstructors().get(0));
+        assertArrayEquals(
+                new String[] { "String", "List..." },
+                inner.getConstructors().get(1)
+        );
+    }
+
+    @Test
+    public void testShardsMergeToFullScan() throws IOException {
+        final List<SourceFile> all = Arrays.asList(
+                file("a/BaseException.java", String.join("\n",
+                        "package a;",
+                        "public class BaseException extends RuntimeException {}"
+                )),
+                file("b/SubException.java", String.join("\n",
+                        "package b;",
+                        "import a.BaseException;",
+                        "public class SubException extends BaseException {",
+                        "    public SubException(String message) {}",
+                        "}"
+                )),
+                file("b/Unrelated.java", "package b; class Unrelated {}")
+        );
+
+        final List<Path> paths = new ArrayList<>();
+        for (final SourceFile file : all) {
+            paths.add(Paths.get(file.getPath()));
+        }
+
+        final int shards = 2;
+        final List<PartialResult> partials = new ArrayList<>();
+        for (int i = 0; i < shards; ++i) {
+            final List<SourceFile> files = new ArrayList<>();
+            for (final Path path : FastScanner.shard(paths, i, shards)) {
+                files.add(all.get(paths.indexOf(path)));
+            }
+            partials.add(roundTrip(new PartialResult(i, shards, files)));
+        }
+
+        Collections.reverse(partials);
+        final List<SourceFile> merged = PartialResult.merge(partials);
+        assertEquals(3, merged.size());
+
+        final FastScanner scanner = new FastScanner(false, ResolutionFallback.NONE, 1);
+        final List<Violation> expected = scanner.check(all).getViolations();
+        final List<Violation> actual = scanner.check(merged).getViolations();
+
+        assertEquals(7, expected.size());
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    @Test
+    public void testIncompleteMerge() {
+        final List<PartialResult> partials = Collections.singletonList(
+                new PartialResult(0, 2, Collections.emptyList())
+        );
+
+        final IOException ex = assertThrows(IOException.class, () -> PartialResult.merge(partials));
+        assertTrue(ex.getMessage().contains("shard 1"));
+    }
+
+    @Test
+    public void testCorruptInput() throws IOException {
+        final SourceFile file = file("p/Outer.java", String.join("\n",
+                "package p;",
+                "import java.util.List;",
+                "class Outer {",
+                "    static class InnerException extends Exception {",
+                "        InnerException(String message, List<Throwable> causes) {}",
+                "    }",
+                "}"
+        ));
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new PartialResult(0, 1, Collections.singletonList(file)).write(out);
+        final byte[] bytes = out.toByteArray();
+
+        // Truncation must always be noticed.
+        for (int length = 0; length < bytes.length; ++length) {
+            final byte[] truncated = Arrays.copyOf(bytes, length);
+            assertThrows(
+                    IOException.class,
+                    () -> PartialResult.read(new ByteArrayInputStream(truncated))
+            );
+        }
+
+        // Corrupt bytes may go unnoticed, but must never fail with anything but an IOException.
+        for (int i = 0; i < bytes.length; ++i) {
+            for (final int corruption : new int[] { 0x01, 0x7F, 0x80, 0xFF }) {
+                final byte[] corrupt = bytes.clone();
+                corrupt[i] ^= corruption;
+                try {
+                    PartialResult.read(new ByteArrayInputStream(corrupt));
+                } catch (final IOException ex) {
+                    // Expected for most corruptions.
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package net.wukl.ruleoffour.scanner;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RuleOfFourCheckerTest {
+    private static SourceFile file(final String path, final String source) {
+        return SourceScanner.scan(path, ByteBuffer.wrap(source.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static List<Violation> check(final boolean exceptionAsCause, final SourceFile... files) {
+        final TypeIndex index = new TypeIndex(Arrays.asList(files), ResolutionFallback.NONE);
+        final RuleOfFourChecker checker = new RuleOfFourChecker(index, exceptionAsCause);
+
+        final List<Violation> violations = new ArrayList<>();
+        for (final SourceFile file : files) {
+            for (final ClassDeclaration decl : file.getClasses()) {
+                violations.addAll(checker.check(decl));
+            }
+        }
+
+        return violations;
+    }
+
+    @Test
+    public void testExtractsDeclarations() {
+        final SourceFile file = file("A.java", String.join("\n",
+                "package a.b;",
+                "import java.util.List;",
+                "import c.*;",
+                "/** class Fake extends Nothing { Fake() {} } */",
+                "public class Outer<T extends Comparable<T>> extends Base<T> implements Runnable {",
+                "    private final String s = \"class Bogus {\";",
+                "    @Deprecated",
+                "    protected Outer(final @Ann(\"x\") String a, List<String>[] b, int... c) {",
+                "        Outer.class.getName();",
+                "    }",
+                "    public void Outer() {}",
+                "    static class Inner extends a.b.Base {}",
+                "}"
+        ));
+
+        assertEquals("a.b", file.getPackageName());
+        assertEquals("java.util.List", file.getSingleImports().get("List"));
+        assertEquals(Arrays.asList("c"), file.getOnDemandImports());
+        assertEquals(2, file.getClasses().size());
+
+        final ClassDeclaration outer = file.getClasses().get(0);
+        assertEquals("a.b.Outer", outer.getQualifiedName());
+        assertEquals("Base", outer.getSuperclass());
+        assertEquals(5, outer.getLine());
+        assertEquals(1, outer.getConstructors().size());
+        assertArrayEquals(
+                new String[] { "String", "List[]", "int..." },
+                outer.getConstructors().get(0)
+        );
+
+        final ClassDeclaration inner = file.getClasses().get(1);
+        assertEquals("a.b.Outer.Inner", inner.getQualifiedName());
+        assertEquals("a.b.Base", inner.getSuperclass());
+    }
+
+    @Test
+    public void testCompliantException() {
+        final SourceFile file = file("GoodException.java", String.join("\n",
+                "package x;",
+                "public class GoodException extends Exception {",
+                "    public GoodException() {}",
+                "    public GoodException(final String message) { super(message); }",
+                "    public GoodException(final Throwable cause) { super(cause); }",
+                "    public GoodException(String message, java.lang.Throwable cause) {",
+                "        super(message, cause);",
+                "    }",
+                "}"
+        ));
+
+        assertTrue(check(false, file).isEmpty());
+        assertEquals(2, check(true, file).size());
+    }
+
+    @Test
+    public void testResolvesSuperclassesAcrossFiles() {
+        final SourceFile base = file("BaseException.java", String.join("\n",
+                "package p;",
+                "public class BaseException extends IllegalStateException {",
+                "    public BaseException() {}",
+                "    public BaseException(String message) {}",
+                "    public BaseException(Throwable cause) {}",
+                "    public BaseException(String message, Throwable cause) {}",
+                "}"
+        ));
+        final SourceFile sub = file("SubException.java", String.join("\n",
+                "package q;",
+                "import p.*;",
+                "class SubException extends BaseException {",
+                "    SubException(String message) {}",
+                "}",
+                "class NotAnException extends Base {}",
+                "class UnknownException extends somewhere.LibraryException {}"
+        ));
+
+        final List<Violation> violations = check(false, base, sub);
+        assertEquals(3, violations.size());
+        for (final Violation violation : violations) {
+            assertEquals("q.SubException", violation.getClassName());
+            assertEquals(3, violation.getLine());
+        }
+    }
+
+    @Test
+    public void testShadowedString() {
+        final SourceFile file = file("OddException.java", String.join("\n",
+                "package x;",
+                "import y.String;",
+                "public class OddException extends RuntimeException {",
+                "    public OddException() {}",
+                "    public OddException(String message) {}",
+                "    public OddException(Throwable cause) {}",
+                "    public OddException(String message, Throwable cause) {}",
+                "}"
+        ));
+
+        assertEquals(2, check(false, file).size());
+    }
+
+    @Test
+    public void testLineNumbersAfterEscapedLineBreaks() {
+        final SourceFile file = file("Lines.java", String.join("\n",
+                "package x;",
+                "class A {",
+                "    String broken = \"unterminated\\",
+                "    String block = \"\"\"",
+                "        continued \\",
+                "        \"\"\";",
+                "}",
+                "class B {}"
+        ));
+
+        assertEquals(2, file.getClasses().get(0).getLine());
+        assertEquals(8, file.getClasses().get(1).getLine());
+    }
+
+    @Test
+    public void testReplaceRetriesUnresolvedNames() {
+        final SourceFile sub = file("SubException.java", String.join("\n",
+                "package q;",
+                "class SubException extends BaseException {}",
+                "class LibraryBasedException extends lib.LibraryException {}"
+        ));
+        final ClassDeclaration subClass = sub.getClasses().get(0);
+        final ClassDeclaration libraryBased = sub.getClasses().get(1);
+
+        final TypeIndex index = new TypeIndex(Arrays.asList(sub), ResolutionFallback.NONE);
+        assertFalse(index.isInheritor(subClass, "java.lang.Exception"));
+        assertFalse(index.isInheritor(libraryBased, "java.lang.Exception"));
+        assertEquals(2, index.getUnresolved().size());
+
+        final SourceFile base = file("BaseException.java", String.join("\n",
+                "package q;",
+                "public class BaseException extends Exception {}"
+        ));
+        index.replace(null, base);
+        assertEquals(Collections.singleton("lib.LibraryException"), index.getUnresolved());
+        assertTrue(index.isInheritor(subClass, "java.lang.Exception"));
+
+        final SourceFile library = file("LibraryException.java", String.join("\n",
+                "package lib;",
+                "public class LibraryException extends RuntimeException {}"
+        ));
+        index.replace(null, library);
+        assertEquals(Collections.emptySet(), index.getUnresolved());
+        assertTrue(index.isInheritor(libraryBased, "java.lang.Exception"));
+    }
+}
@@ -2,7 +2,6 @@ package net.wukl.ruleoffour;
 
 import com.intellij.codeInsight.intention.IntentionAction;
 import com.intellij.codeInsight.intention.PsiElementBaseIntentionAction;
-import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.JavaPsiFacade;
@@ -10,11 +9,13 @@ import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiElementFactory;
 import com.intellij.psi.PsiMethod;
-import com.intellij.psi.PsiParameter;
 import com.intellij.psi.codeStyle.CodeStyleManager;
 import com.intellij.psi.codeStyle.JavaCodeStyleManager;
 import com.intellij.util.IncorrectOperationException;
 import net.wukl.ruleoffour.config.Ro4Configuration;
+import net.wukl.ruleoffour.engine.ConstructorGenerator;
+import net.wukl.ruleoffour.engine.GeneratorOptions;
+import net.wukl.ruleoffour.engine.RuleOfFour;
 import org.jetbrains.annotations.Nls;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -27,7 +28,7 @@ public class CreateConstructorsIntention extends PsiElementBaseIntentionAction
     @NotNull
     @Override
     public String getText() {
-        return "Generate exception constructors";
+        return ConstructorGenerator.TITLE;
     }
 
     /**
@@ -45,12 +46,10 @@ public class CreateConstructorsIntention extends PsiElementBaseIntentionAction
             throw new IncorrectOperationException("Class does not qualify");
         }
 
-        final Ro4Configuration config = ServiceManager.getService(project, Ro4Configuration.class);
+        final Ro4Configuration config = Ro4Configuration.getInstance(project);
 
         final String className = element.getText();
-        final String docName = config.isExactNameInDocEnabled()
-                ? " " + className
-                : this.humanizeName(className);
+        final GeneratorOptions options = EngineAdapter.optionsOf(config);
 
         final PsiMethod[] existingMethods = type.getMethods();
         final PsiMethod firstExistingMethod;
@@ -61,38 +60,11 @@ public class CreateConstructorsIntention extends PsiElementBaseIntentionAction
         }
 
         final PsiElementFactory fact = JavaPsiFacade.getElementFactory(project);
-
-        final StringBuilder msgParBuilder = new StringBuilder();
-        final StringBuilder causeParBuilder = new StringBuilder();
-
-        if (config.isFinalParamsEnabled()) {
-            msgParBuilder.append("final ");
-            causeParBuilder.append("final ");
-        }
-
-        if (config.isNullableParamsEnabled()) {
-            msgParBuilder.append("@Nullable ");
-            causeParBuilder.append("@Nullable ");
-        }
-
-        msgParBuilder.append("String message");
-        causeParBuilder.append(config.isExceptionAsCauseEnabled() ? "Exception" : "Throwable");
-        causeParBuilder.append(" cause");
-
-        final PsiParameter msgPar = fact.createParameterFromText(msgParBuilder.toString(), null);
-        final PsiParameter causePar = fact.createParameterFromText(causeParBuilder.toString(), null);
-
         final CodeStyleManager stylist = CodeStyleManager.getInstance(project);
 
-        for (int i = 0; i < 4; ++i) {
-            final PsiElement ctor = this.genConstructor(
-                    fact,
-                    className,
-                    docName,
-                    (i & 1) == 1 ? msgPar : null,
-                    (i & 2) == 2 ? causePar : null,
-                    config
-            );
+        for (int i = 0; i < RuleOfFour.CONSTRUCTOR_COUNT; ++i) {
+            final String text = ConstructorGenerator.generate(className, i, options);
+            final PsiMethod ctor = fact.createMethodFromText(text, type);
 
             type.addBefore(stylist.reformat(ctor), firstExistingMethod);
         }
@@ -103,75 +75,6 @@ public class CreateConstructorsIntention extends PsiElementBaseIntentionAction
         }
     }
 
-    /**
-     * Generates an exception constnuctor.
-     *
-     * @param fact the PSI element factory to build new elements with
-     * @param className the name of the class to generate constructors for
-     * @param docName the name to use in the documentation
-     * @param msgPar the element to add as a message parameter, if not {@code null}
-     * @param causePar the element to add as a cause parameter, if not {@code null}
-     * @param config the plugin configuration instance to get settings from
-     *
-     * @return the constructor element
-     */
-    private PsiElement genConstructor(
-            final @NotNull PsiElementFactory fact,
-            final @NotNull String className,
-            final @NotNull String docName,
-            final @Nullable PsiParameter msgPar,
-            final @Nullable PsiParameter causePar,
-            final @NotNull Ro4Configuration config
-    ) {
-        final PsiMethod ctor = fact.createConstructor(className);
-
-        final StringBuilder superBuilder = new StringBuilder("super(");
-        final StringBuilder commentBuilder = new StringBuilder(
-                "/**\n* Creates a new" + docName + ".\n"
-        );
-
-        final boolean isFirst = msgPar != null || causePar != null;
-
-        if (isFirst) {
-            commentBuilder.append("* \n");
-        }
-
-        if (msgPar != null) {
-            superBuilder.append("message");
-            commentBuilder.append(
-                    "* @param message the message explaining what caused the exception\n"
-            );
-            ctor.getParameterList().add(msgPar.copy());
-        }
-
-        if (msgPar != null && causePar != null) {
-            superBuilder.append(", ");
-        }
-
-        if (causePar != null) {
-            superBuilder.append("cause");
-            commentBuilder.append("* @param cause the exception that caused this exception\n");
-            ctor.getParameterList().add(causePar.copy());
-        }
-
-        superBuilder.append(");");
-        commentBuilder.append("*/");
-
-        PsiElement body = ctor.getBody();
-        assert body != null : "Generated constructor has no body";
-
-        if (!isFirst || config.isEmptySuperEnabled()) {
-            body.add(fact.createStatementFromText(superBuilder.toString(), null));
-        }
-
-        if (config.isJavadocEnabled()) {
-            final String doc = commentBuilder.toString();
-            ctor.addBefore(fact.createDocCommentFromText(doc), ctor.getFirstChild());
-        }
-
-        return ctor;
-    }
-
     /**
      * Checks whether this intention is available at a caret offset in file. If this method returns
      * true, a light bulb for this intention is shown.
@@ -191,21 +94,6 @@ public class CreateConstructorsIntention extends PsiElementBaseIntentionAction
         return Utils.isApplicable(element);
     }
 
-    /**
-     * Converts a class name to "human" form.
-     *
-     * "Human" form means that the class name is split at the capitals and converted to lower case.
-     *
-     * @param name the name to convert
-     *
-     * @return the humanized name
-     */
-    @NotNull
-    private String humanizeName(final @NotNull String name) {
-        final String splitName = name.replaceAll("([A-Z])", " $1");
-        return splitName.toLowerCase();
-    }
-
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,62 @@
+package net.wukl.ruleoffour;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiParameter;
+import net.wukl.ruleoffour.config.Ro4Configuration;
+import net.wukl.ruleoffour.engine.GeneratorOptions;
+import net.wukl.ruleoffour.engine.Signatures;
+import net.wukl.ruleoffour.engine.TypeTable;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Converts PSI and plugin configuration objects into the model of the rule engine.
+ */
+public final class EngineAdapter {
+    private EngineAdapter() {
+    }
+
+    /**
+     * Packs the constructor signatures of a class.
+     *
+     * @param type the class
+     *
+     * @return the packed signatures
+     */
+    @NotNull
+    public static int[] signaturesOf(final @NotNull PsiClass type) {
+        final PsiMethod[] constructors = type.getConstructors();
+        if (constructors.length == 0) {
+            return Signatures.none();
+        }
+
+        final Signatures.Builder builder = new Signatures.Builder();
+        for (final PsiMethod ctor : constructors) {
+            builder.constructor();
+            for (final PsiParameter param : ctor.getParameterList().getParameters()) {
+                builder.parameter(TypeTable.wellKnown(param.getType().getCanonicalText()));
+            }
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Copies the generator settings from the plugin configuration.
+     *
+     * @param config the plugin configuration
+     *
+     * @return the generator options
+     */
+    @NotNull
+    public static GeneratorOptions optionsOf(final @NotNull Ro4Configuration config) {
+        final GeneratorOptions options = new GeneratorOptions();
+        options.setJavadocEnabled(config.isJavadocEnabled());
+        options.setExactNameInDocEnabled(config.isExactNameInDocEnabled());
+        options.setEmptySuperEnabled(config.isEmptySuperEnabled());
+        options.setFinalParamsEnabled(config.isFinalParamsEnabled());
+        options.setNullableParamsEnabled(config.isNullableParamsEnabled());
+        options.setExceptionAsCauseEnabled(config.isExceptionAsCauseEnabled());
+        return options;
+    }
+}
@@ -1,10 +1,12 @@
 package net.wukl.ruleoffour;
 
+import com.intellij.psi.CommonClassNames;
 import com.intellij.psi.JavaTokenType;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiJavaToken;
 import com.intellij.psi.util.InheritanceUtil;
+import net.wukl.ruleoffour.engine.RuleOfFour;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -18,16 +20,15 @@ public class Utils {
                 ? (PsiClass) element
                 : getDeclaredClass(element);
 
-        if (!InheritanceUtil.isInheritor(type, "java.lang.Exception")) {
-            return false;
-        }
-
-        final String className = type.getName();
+        final String className = type == null ? null : type.getName();
         if (className == null) {
             return false;
         }
 
-        return className.endsWith("Exception");
+        return RuleOfFour.isApplicable(
+                className,
+                InheritanceUtil.isInheritor(type, CommonClassNames.JAVA_LANG_EXCEPTION)
+        );
     }
 
     /**
@@ -12,10 +12,23 @@ import javax.swing.*;
 
 public class ConfigurationPanel implements SearchableConfigurable {
     private @Nullable ConfigurationUi ui;
-    private @NotNull Ro4Configuration config;
+    private final @NotNull Project project;
 
     public ConfigurationPanel(final @NotNull Project project) {
-        this.config = Ro4Configuration.getInstance(project);
+        this.project = project;
+    }
+
+    /**
+     * Returns the configuration edited by this panel.
+     *
+     * The configuration is looked up on demand so that merely listing the settings page does not
+     * load the configuration service.
+     *
+     * @return the configuration
+     */
+    @NotNull
+    private Ro4Configuration getConfig() {
+        return Ro4Configuration.getInstance(this.project);
     }
 
     /**
@@ -69,7 +82,7 @@ public class ConfigurationPanel implements SearchableConfigurable {
             return false;
         }
 
-        return !this.config.equals(this.ui.extractConfig());
+        return !this.getConfig().equals(this.ui.extractConfig());
     }
 
     /**
@@ -84,7 +97,7 @@ public class ConfigurationPanel implements SearchableConfigurable {
             return;
         }
 
-        this.config.loadState(this.ui.extractConfig());
+        this.getConfig().loadState(this.ui.extractConfig());
     }
 
     /**
@@ -96,7 +109,7 @@ public class ConfigurationPanel implements SearchableConfigurable {
             return;
         }
 
-        this.ui.loadState(this.config);
+        this.ui.loadState(this.getConfig());
     }
 
     /**